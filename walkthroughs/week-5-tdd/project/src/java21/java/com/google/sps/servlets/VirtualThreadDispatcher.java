@@ -0,0 +1,65 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.servlets;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs every task on a new virtual thread. Only built by the {@code java21} profile, which
+ * registers it for {@link java.util.ServiceLoader}.
+ */
+public final class VirtualThreadDispatcher implements TaskDispatcher {
+  private static final Thread.Builder THREADS = Thread.ofVirtual().name("request-", 0);
+
+  @Override
+  public void dispatch(Runnable task) {
+    THREADS.start(task);
+  }
+
+  /**
+   * Runs the tasks in a scope that is closed before returning, so they never outlive the request.
+   * StructuredTaskScope is still a preview API in Java 21, so the scope is an executor with one
+   * virtual thread per task, whose close() waits for every task.
+   */
+  @Override
+  public <T> List<T> invokeAll(List<Callable<T>> tasks)
+      throws InterruptedException, ExecutionException {
+    try (ExecutorService scope = Executors.newVirtualThreadPerTaskExecutor()) {
+      List<Future<T>> futures = new ArrayList<>(tasks.size());
+      for (Callable<T> task : tasks) {
+        futures.add(scope.submit(task));
+      }
+
+      List<T> results = new ArrayList<>(futures.size());
+      try {
+        for (Future<T> future : futures) {
+          results.add(future.get());
+        }
+      } catch (InterruptedException | ExecutionException e) {
+        // Stop the rest instead of waiting for answers that will be thrown away.
+        scope.shutdownNow();
+        throw e;
+      }
+      return results;
+    }
+  }
+}
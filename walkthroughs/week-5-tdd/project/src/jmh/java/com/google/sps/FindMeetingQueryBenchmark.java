@@ -0,0 +1,105 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link FindMeetingQuery#query} throughput on synthetic calendars for every engine. Run
+ * with the gc profiler (the default in the benchmark profile) to also see the bytes allocated per
+ * query.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FindMeetingQueryBenchmark {
+  private static final long SEED = 42;
+  private static final int MANDATORY_COUNT = 5;
+  private static final int DURATION_30_MINUTES = 30;
+
+  @Param({"100", "1000", "10000"})
+  public int eventCount;
+
+  @Param({"2", "8"})
+  public int attendeesPerEvent;
+
+  @Param({"0.25", "2.0"})
+  public double overlapDensity;
+
+  @Param({"0", "8"})
+  public int optionalCount;
+
+  @Param({"reference", "sweep-line", "bitmap", "parallel", "indexed"})
+  public String engine;
+
+  private Collection<Event> events;
+  private EventIndex index;
+  private MeetingRequest request;
+  private FindMeetingQuery query;
+
+  @Setup
+  public void setUp() {
+    CalendarGenerator generator = new CalendarGenerator(SEED)
+        .eventCount(eventCount)
+        .attendeesPerEvent(attendeesPerEvent)
+        .peopleCount(Math.max(attendeesPerEvent, eventCount / 5))
+        .overlapDensity(overlapDensity);
+    events = generator.events();
+    request = generator.request(MANDATORY_COUNT, optionalCount, DURATION_30_MINUTES);
+    index = engine.equals("indexed") ? new EventIndex(events) : null;
+    query = newQuery(engine);
+  }
+
+  @Benchmark
+  public Collection<TimeRange> query() {
+    return (index == null) ? query.query(events, request) : query.query(index, request);
+  }
+
+  /**
+   * Returns a query that uses the engine with the given benchmark name. The indexed benchmark
+   * uses the default engine for anything that is not served by the index.
+   */
+  static FindMeetingQuery newQuery(String engine) {
+    switch (engine) {
+      case "reference":
+      case "indexed":
+        return new FindMeetingQuery();
+      case "sweep-line":
+        return new FindMeetingQuery(new SweepLineEngine());
+      case "bitmap":
+        return new FindMeetingQuery(new BitmapEngine());
+      case "parallel":
+        return new FindMeetingQuery(new ParallelEngine());
+      default:
+        throw new IllegalArgumentException("Unknown engine: " + engine);
+    }
+  }
+}
@@ -0,0 +1,80 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link ParallelEngine} with {@link SweepLineEngine} on all-hands requests over growing
+ * calendars, to find the event count at which forking starts to pay off. The parallel engine is
+ * given a small threshold here so that it always forks; the crossover this benchmark reports is
+ * what {@link ParallelEngine#DEFAULT_THRESHOLD} should be set to.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelCrossoverBenchmark {
+  private static final long SEED = 42;
+  private static final int PEOPLE_COUNT = 5000;
+  private static final int MANDATORY_COUNT = 1000;
+  private static final int ATTENDEES_PER_EVENT = 4;
+  private static final int SPLIT_THRESHOLD = 512;
+  private static final int DURATION_30_MINUTES = 30;
+
+  @Param({"1000", "4000", "16000", "64000", "256000"})
+  public int eventCount;
+
+  @Param({"sweep-line", "parallel"})
+  public String engine;
+
+  private Collection<Event> events;
+  private MeetingRequest request;
+  private FindMeetingQuery query;
+
+  @Setup
+  public void setUp() {
+    CalendarGenerator generator = new CalendarGenerator(SEED)
+        .eventCount(eventCount)
+        .attendeesPerEvent(ATTENDEES_PER_EVENT)
+        .peopleCount(PEOPLE_COUNT);
+    events = generator.events();
+    request = generator.request(MANDATORY_COUNT, 0, DURATION_30_MINUTES);
+    query = engine.equals("parallel")
+        ? new FindMeetingQuery(new ParallelEngine(ForkJoinPool.commonPool(), SPLIT_THRESHOLD))
+        : new FindMeetingQuery(new SweepLineEngine());
+  }
+
+  @Benchmark
+  public Collection<TimeRange> query() {
+    return query.query(events, request);
+  }
+}
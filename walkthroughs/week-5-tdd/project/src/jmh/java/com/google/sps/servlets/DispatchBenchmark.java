@@ -0,0 +1,109 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.servlets;
+
+import com.google.sps.Events;
+import com.google.sps.FindMeetingQuery;
+import com.google.sps.MeetingRequest;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares a fixed pool of platform threads, the way a servlet container runs requests, with the
+ * {@link TaskDispatcher} registered by the build. Each simulated request waits on I/O and then
+ * runs a query, and one operation is a burst of concurrent requests. Run with both the
+ * {@code java21} and {@code benchmark} profiles so that a dispatcher is registered.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+  // The default size of Jetty's and Tomcat's request thread pools.
+  private static final int CONTAINER_THREADS = 200;
+
+  @Param({"platform", "registered"})
+  public String dispatch;
+
+  @Param({"1000"})
+  public int concurrentRequests;
+
+  @Param({"5"})
+  public int ioMilliseconds;
+
+  private ExecutorService containerThreads;
+  private TaskDispatcher dispatcher;
+  private final MeetingRequest request = new MeetingRequest(Arrays.asList("Ava", "Liam"), 30);
+
+  @Setup
+  public void setUp() {
+    if (dispatch.equals("platform")) {
+      containerThreads = Executors.newFixedThreadPool(CONTAINER_THREADS);
+      dispatcher = null;
+      return;
+    }
+
+    dispatcher = TaskDispatchers.get();
+    if (dispatcher == null) {
+      throw new IllegalStateException("No TaskDispatcher is registered. Build with -Pjava21.");
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    if (containerThreads != null) {
+      containerThreads.shutdownNow();
+    }
+  }
+
+  @Benchmark
+  public void burst() throws InterruptedException {
+    CountDownLatch done = new CountDownLatch(concurrentRequests);
+    Runnable task = () -> {
+      // Stands in for reading the request body from a slow client.
+      LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(ioMilliseconds));
+      new FindMeetingQuery().query(Arrays.asList(Events.events), request);
+      done.countDown();
+    };
+
+    for (int i = 0; i < concurrentRequests; i++) {
+      if (dispatcher == null) {
+        containerThreads.execute(task);
+      } else {
+        dispatcher.dispatch(task);
+      }
+    }
+    done.await();
+  }
+}
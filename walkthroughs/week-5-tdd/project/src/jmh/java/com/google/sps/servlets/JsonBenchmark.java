@@ -0,0 +1,92 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.servlets;
+
+import com.google.gson.Gson;
+import com.google.sps.Event;
+import com.google.sps.TimeRange;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the hand-written adapters in {@link Json} with plain reflective {@link Gson} when
+ * writing and reading a calendar of events. The payload size of each form is printed once during
+ * setup.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+  private static final long SEED = 42;
+  private static final int PEOPLE_COUNT = 200;
+
+  @Param({"100", "10000"})
+  public int eventCount;
+
+  @Param({"compact", "reflective"})
+  public String format;
+
+  private Gson gson;
+  private Event[] events;
+  private String json;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(SEED);
+    events = new Event[eventCount];
+    for (int i = 0; i < eventCount; i++) {
+      int start = random.nextInt(TimeRange.END_OF_DAY);
+      int duration = 1 + random.nextInt(Math.min(120, TimeRange.END_OF_DAY - start));
+      List<String> attendees = new ArrayList<>();
+      for (int j = 0; j < 4; j++) {
+        attendees.add("Person " + random.nextInt(PEOPLE_COUNT));
+      }
+      events[i] = new Event("Event " + i, TimeRange.fromStartDuration(start, duration), attendees);
+    }
+
+    gson = format.equals("compact") ? Json.GSON : new Gson();
+    json = gson.toJson(events);
+    System.out.println(
+        format + " payload: " + json.getBytes(StandardCharsets.UTF_8).length + " bytes");
+  }
+
+  @Benchmark
+  public String write() {
+    return gson.toJson(events);
+  }
+
+  @Benchmark
+  public Event[] read() {
+    return gson.fromJson(json, Event[].class);
+  }
+}
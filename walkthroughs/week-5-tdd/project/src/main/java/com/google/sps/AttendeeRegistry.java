@@ -0,0 +1,140 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns attendee names to dense {@code int} IDs, starting from 0. Events and requests keep
+ * their attendees as sorted ID arrays, so checking whether someone attends an event is an integer
+ * probe rather than a string hash. Every distinct name is stored once, and events share that one
+ * instance.
+ *
+ * <p>IDs are never reused or released, so the registry grows with the number of distinct people
+ * ever seen. This is safe to use from several threads.
+ */
+public final class AttendeeRegistry {
+  private static final AttendeeRegistry GLOBAL = new AttendeeRegistry();
+
+  private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+
+  // Names by ID. Only replaced or written to while holding the lock on this registry.
+  private volatile String[] names = new String[16];
+  private int size;
+
+  /**
+   * Returns the registry shared by all events and meeting requests.
+   */
+  public static AttendeeRegistry global() {
+    return GLOBAL;
+  }
+
+  /**
+   * Returns the ID of {@code name}, assigning the next free ID if it has not been seen before.
+   */
+  public int intern(String name) {
+    if (name == null) {
+      throw new IllegalArgumentException("name cannot be null");
+    }
+
+    Integer id = ids.get(name);
+    if (id != null) {
+      return id;
+    }
+
+    synchronized (this) {
+      id = ids.get(name);
+      if (id != null) {
+        return id;
+      }
+
+      if (size == names.length) {
+        names = Arrays.copyOf(names, size * 2);
+      }
+      names[size] = name;
+      // Publish the ID only once its name can be read back.
+      ids.put(name, size);
+      return size++;
+    }
+  }
+
+  /**
+   * Returns the sorted, distinct IDs of {@code names}, interning any that are new.
+   */
+  public int[] internAll(Collection<String> names) {
+    int[] result = new int[names.size()];
+    int count = 0;
+    for (String name : names) {
+      result[count++] = intern(name);
+    }
+    return sortedDistinct(result, count);
+  }
+
+  /**
+   * Returns the ID of {@code name}, or -1 if it has never been interned.
+   */
+  public int find(String name) {
+    Integer id = (name == null) ? null : ids.get(name);
+    return (id == null) ? -1 : id;
+  }
+
+  /**
+   * Returns the IDs of {@code names} as a bit set, for fast membership checks against an event's
+   * attendee IDs. Names that have never been interned are skipped, since no event can have them.
+   */
+  public BitSet findAll(Collection<String> names) {
+    BitSet found = new BitSet();
+    for (String name : names) {
+      int id = find(name);
+      if (id >= 0) {
+        found.set(id);
+      }
+    }
+    return found;
+  }
+
+  /**
+   * Returns the name with the given ID.
+   */
+  public String nameOf(int id) {
+    String[] current = names;
+    if (id < 0 || id >= current.length || current[id] == null) {
+      throw new IllegalArgumentException("Unknown attendee id: " + id);
+    }
+    return current[id];
+  }
+
+  /**
+   * Returns how many distinct names have been interned. Every ID is below this number.
+   */
+  public int size() {
+    return ids.size();
+  }
+
+  private static int[] sortedDistinct(int[] ids, int count) {
+    Arrays.sort(ids, 0, count);
+    int distinct = 0;
+    for (int i = 0; i < count; i++) {
+      if (distinct == 0 || ids[distinct - 1] != ids[i]) {
+        ids[distinct++] = ids[i];
+      }
+    }
+    return (distinct == ids.length) ? ids : Arrays.copyOf(ids, distinct);
+  }
+}
@@ -0,0 +1,170 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The busy time of one or more people during a single day, stored with one bit per minute. A day
+ * has only 1440 minutes, so the whole day fits in 23 {@code long} words. Combining the schedules
+ * of several people is a word-wise OR, and finding free time is a scan for runs of clear bits.
+ */
+public final class AvailabilityBitmap {
+  private static final int MINUTES_IN_DAY = TimeRange.WHOLE_DAY.duration();
+  private static final int WORDS = (MINUTES_IN_DAY + Long.SIZE - 1) / Long.SIZE;
+
+  private final long[] words = new long[WORDS];
+
+  /**
+   * Returns a bitmap with the time of every event in {@code events} marked as busy.
+   */
+  public static AvailabilityBitmap fromEvents(Iterable<Event> events) {
+    AvailabilityBitmap bitmap = new AvailabilityBitmap();
+    for (Event event : events) {
+      bitmap.markBusy(event.getWhen());
+    }
+    return bitmap;
+  }
+
+  /**
+   * Marks every minute in {@code range} as busy.
+   */
+  public void markBusy(TimeRange range) {
+    markBusy(range.start(), range.end());
+  }
+
+  /**
+   * Marks every minute in [{@code start}, {@code end}) as busy. Minutes outside of the day are
+   * ignored.
+   */
+  public void markBusy(int start, int end) {
+    start = Math.max(start, TimeRange.START_OF_DAY);
+    end = Math.min(end, MINUTES_IN_DAY);
+    if (end <= start) {
+      return;
+    }
+
+    int firstWord = start >>> 6;
+    int lastWord = (end - 1) >>> 6;
+    // Shift distances are taken mod 64, so these are the bits from {@code start} upwards in the
+    // first word and the bits below {@code end} in the last word.
+    long firstMask = -1L << start;
+    long lastMask = -1L >>> -end;
+
+    if (firstWord == lastWord) {
+      words[firstWord] |= firstMask & lastMask;
+      return;
+    }
+    words[firstWord] |= firstMask;
+    for (int i = firstWord + 1; i < lastWord; i++) {
+      words[i] = -1L;
+    }
+    words[lastWord] |= lastMask;
+  }
+
+  /**
+   * Returns true if {@code minute} is marked as busy.
+   */
+  public boolean isBusy(int minute) {
+    if (minute < TimeRange.START_OF_DAY || minute >= MINUTES_IN_DAY) {
+      return false;
+    }
+    return (words[minute >>> 6] & (1L << minute)) != 0;
+  }
+
+  /**
+   * Marks every minute that is busy in {@code other} as busy in this bitmap as well.
+   *
+   * @return this bitmap, so that several schedules can be combined in a chain.
+   */
+  public AvailabilityBitmap or(AvailabilityBitmap other) {
+    for (int i = 0; i < WORDS; i++) {
+      words[i] |= other.words[i];
+    }
+    return this;
+  }
+
+  /**
+   * Returns every run of free minutes, in ascending order, that is at least {@code duration}
+   * minutes long.
+   */
+  public List<TimeRange> availableTime(long duration) {
+    List<TimeRange> availableTime = new ArrayList<>();
+    int freeStart = nextFreeMinute(TimeRange.START_OF_DAY);
+    while (freeStart < MINUTES_IN_DAY) {
+      int freeEnd = nextBusyMinute(freeStart);
+      // Like the reference implementation, a trailing gap that only starts on the last minute of
+      // the day is not offered.
+      boolean lastMinuteOnly = freeEnd == MINUTES_IN_DAY && freeStart >= TimeRange.END_OF_DAY;
+      if (freeEnd - freeStart >= duration && !lastMinuteOnly) {
+        availableTime.add(TimeRange.fromStartEnd(freeStart, freeEnd, false));
+      }
+      freeStart = nextFreeMinute(freeEnd);
+    }
+    return availableTime;
+  }
+
+  /**
+   * Returns the busy minutes as disjoint intervals in ascending order, already merged.
+   */
+  IntervalBuffer busyTime() {
+    IntervalBuffer busyTime = new IntervalBuffer();
+    int busyStart = nextBusyMinute(TimeRange.START_OF_DAY);
+    while (busyStart < MINUTES_IN_DAY) {
+      int busyEnd = nextFreeMinute(busyStart);
+      busyTime.add(busyStart, busyEnd);
+      busyStart = nextBusyMinute(busyEnd);
+    }
+    return busyTime;
+  }
+
+  /**
+   * Returns the first busy minute at or after {@code from}, or the end of the day if there is none.
+   */
+  private int nextBusyMinute(int from) {
+    if (from >= MINUTES_IN_DAY) {
+      return MINUTES_IN_DAY;
+    }
+    int index = from >>> 6;
+    long word = words[index] & (-1L << from);
+    while (word == 0) {
+      if (++index == WORDS) {
+        return MINUTES_IN_DAY;
+      }
+      word = words[index];
+    }
+    return Math.min(index * Long.SIZE + Long.numberOfTrailingZeros(word), MINUTES_IN_DAY);
+  }
+
+  /**
+   * Returns the first free minute at or after {@code from}, or the end of the day if there is none.
+   */
+  private int nextFreeMinute(int from) {
+    if (from >= MINUTES_IN_DAY) {
+      return MINUTES_IN_DAY;
+    }
+    int index = from >>> 6;
+    long word = ~words[index] & (-1L << from);
+    while (word == 0) {
+      if (++index == WORDS) {
+        return MINUTES_IN_DAY;
+      }
+      word = ~words[index];
+    }
+    return Math.min(index * Long.SIZE + Long.numberOfTrailingZeros(word), MINUTES_IN_DAY);
+  }
+}
@@ -0,0 +1,33 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Strategy for finding when a group of attendees is free during the day. {@link FindMeetingQuery}
+ * delegates to an engine for the heavy lifting, so different implementations can be swapped in
+ * without changing how optional attendees or too-long requests are handled.
+ */
+public interface AvailabilityEngine {
+  /**
+   * Returns every range of the day, in ascending order, during which none of {@code attendees}
+   * are in any of {@code events} and that is at least {@code duration} minutes long.
+   */
+  List<TimeRange> findAvailableTime(
+      Collection<Event> events, Collection<String> attendees, long duration);
+}
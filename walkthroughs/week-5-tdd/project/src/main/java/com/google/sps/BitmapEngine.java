@@ -0,0 +1,45 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An {@link AvailabilityEngine} backed by an {@link AvailabilityBitmap}. Every event that a
+ * requested attendee goes to is marked into one bitmap, and the free time is read back out with a
+ * run-length scan, so no intervals are sorted or merged. The events are scanned on every call;
+ * {@link EventIndex} keeps a bitmap per attendee so that large groups can reuse them instead.
+ */
+public final class BitmapEngine implements AvailabilityEngine {
+
+  @Override
+  public List<TimeRange> findAvailableTime(
+      Collection<Event> events, Collection<String> attendees, long duration) {
+    BitSet attendeeIds = AttendeeRegistry.global().findAll(attendees);
+    AvailabilityBitmap busy = new AvailabilityBitmap();
+
+    if (!attendeeIds.isEmpty()) {
+      for (Event event : events) {
+        if (SweepLineEngine.isAttending(event, attendeeIds)) {
+          busy.markBusy(event.getWhen());
+        }
+      }
+    }
+    return busy.availableTime(duration);
+  }
+}
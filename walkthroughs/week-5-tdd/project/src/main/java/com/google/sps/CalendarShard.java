@@ -0,0 +1,37 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.io.Closeable;
+import java.util.Collection;
+
+/**
+ * One part of a {@link ShardedCalendar}. A shard holds the events of the attendees assigned to it
+ * and answers busy-time questions about them, either in this process or in a worker reached over
+ * a socket.
+ */
+public interface CalendarShard extends Closeable {
+  /**
+   * Adds {@code event} to the shard. The event only lists the attendees assigned to this shard.
+   */
+  void addEvent(Event event);
+
+  /**
+   * Returns the union of the busy time of {@code attendees}, as sorted, disjoint ranges packed with
+   * {@link LongTimeRange}.
+   */
+  long[] busyTime(Collection<String> attendees);
+}
@@ -14,9 +14,12 @@
 
 package com.google.sps;
 
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 /**
@@ -26,7 +29,17 @@ import java.util.Set;
 public final class Event {
   private final String title;
   private final TimeRange when;
-  private final Set<String> attendees = new HashSet<>();
+
+  // The attendees as interned names, in the same order as {@code attendeeIds}. Storing the shared
+  // name instances in an array costs far less memory than a set per event. An event read by
+  // reflection, such as by a plain Gson, has the names as they were written instead.
+  private final String[] attendees;
+
+  // The sorted IDs of the attendees in the global {@code AttendeeRegistry}. Transient so that the
+  // JSON form of an event only has the names, which means reflection never sets it and it has to
+  // be rebuilt from the names the first time it is needed. Volatile so that the rebuilt array is
+  // safely published to other threads.
+  private transient volatile int[] attendeeIds;
 
   /**
    * Creates a new event.
@@ -48,9 +61,15 @@ public final class Event {
       throw new IllegalArgumentException("attendees cannot be null. Use empty array instead.");
     }
 
+    AttendeeRegistry registry = AttendeeRegistry.global();
     this.title = title;
     this.when = when;
-    this.attendees.addAll(attendees);
+    int[] ids = registry.internAll(attendees);
+    this.attendees = new String[ids.length];
+    for (int i = 0; i < ids.length; i++) {
+      this.attendees[i] = registry.nameOf(ids[i]);
+    }
+    this.attendeeIds = ids;
   }
 
   /**
@@ -71,9 +90,37 @@ public final class Event {
    * Returns a read-only set of required attendees for this event.
    */
   public Set<String> getAttendees() {
-    // Return the attendees as an unmodifiable set so that the caller can't change our
-    // internal data.
-    return Collections.unmodifiableSet(attendees);
+    // Return a read-only view over our arrays so that the caller can't change our internal data.
+    return new AttendeeSet();
+  }
+
+  /**
+   * Returns the sorted IDs of the required attendees in {@link AttendeeRegistry#global()}.
+   */
+  public int[] getAttendeeIds() {
+    return attendeeIds().clone();
+  }
+
+  /**
+   * Returns true if the attendee with the given registry ID attends this event.
+   */
+  public boolean hasAttendee(int attendeeId) {
+    return Arrays.binarySearch(attendeeIds(), attendeeId) >= 0;
+  }
+
+  /**
+   * Returns the sorted attendee IDs without copying them, for the scheduler's hot paths. Callers
+   * must not modify the array.
+   */
+  int[] attendeeIds() {
+    int[] ids = attendeeIds;
+    if (ids == null) {
+      // Racing threads intern the same names, so they all store equal arrays.
+      ids = AttendeeRegistry.global().internAll(
+          (attendees == null) ? Collections.<String>emptyList() : Arrays.asList(attendees));
+      attendeeIds = ids;
+    }
+    return ids;
   }
 
   @Override
@@ -89,8 +136,51 @@ public final class Event {
   }
 
   private static boolean equals(Event a, Event b) {
-    // {@code attendees} must be a set for equals to work as expected. According to the {@code Set}
-    // interface documentation, equals will check for set-equality across all set implementations.
-    return a.title.equals(b.title) && a.when.equals(b.when) && a.attendees.equals(b.attendees);
+    // {@code attendeeIds} are sorted and distinct, so two events have the same set of attendees
+    // exactly when their ID arrays are equal.
+    return a.title.equals(b.title) && a.when.equals(b.when)
+        && Arrays.equals(a.attendeeIds(), b.attendeeIds());
+  }
+
+  /**
+   * A read-only set view of the attendees. Membership is an ID lookup followed by a binary search
+   * of the sorted IDs. Names are read back through the IDs, so that an event read by reflection
+   * with repeated names still acts as a set.
+   */
+  private final class AttendeeSet extends AbstractSet<String> {
+    @Override
+    public boolean contains(Object o) {
+      if (!(o instanceof String)) {
+        return false;
+      }
+      int id = AttendeeRegistry.global().find((String) o);
+      return id >= 0 && hasAttendee(id);
+    }
+
+    @Override
+    public int size() {
+      return attendeeIds().length;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+      int[] ids = attendeeIds();
+      return new Iterator<String>() {
+        private int next = 0;
+
+        @Override
+        public boolean hasNext() {
+          return next < ids.length;
+        }
+
+        @Override
+        public String next() {
+          if (next >= ids.length) {
+            throw new NoSuchElementException();
+          }
+          return AttendeeRegistry.global().nameOf(ids[next++]);
+        }
+      };
+    }
   }
 }
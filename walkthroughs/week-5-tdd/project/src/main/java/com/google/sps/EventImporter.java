@@ -0,0 +1,380 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import com.google.gson.stream.JsonReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Loads a large calendar export straight into an {@link EventIndex}. One thread reads the file in
+ * chunks of lines and the other threads parse the chunks at the same time. No {@link Event}s are
+ * created: each line only becomes one interval for each of its attendees, whose names are interned
+ * with the global {@link AttendeeRegistry} so that every attendee's name is stored once.
+ *
+ * <p>Two formats are read, one event per line:
+ *
+ * <ul>
+ *   <li>{@link Format#CSV}: {@code title,start,end,attendees}, where start and end are minutes,
+ *       the end is exclusive, and attendees are separated by semicolons. Fields may be quoted, with
+ *       {@code ""} for a quote inside a quoted field. A first line of exactly
+ *       {@code title,start,end,attendees} is taken to be a header and skipped.
+ *   <li>{@link Format#NDJSON}: the JSON form of an event that the servlets send, for example
+ *       {@code {"title": "Standup", "when": [540, 555], "attendees": ["Ava", "Liam"]}}.
+ * </ul>
+ *
+ * <p>Blank lines are skipped in both. The import stops as soon as any chunk fails to parse,
+ * rather than after the whole file has been read.
+ */
+public final class EventImporter {
+  /**
+   * The formats that can be imported.
+   */
+  public enum Format {
+    CSV,
+    NDJSON,
+  }
+
+  /**
+   * The index built by an import and how long it took.
+   */
+  public static final class Result {
+    private final EventIndex index;
+    private final long eventCount;
+    private final long elapsedNanos;
+
+    Result(EventIndex index, long eventCount, long elapsedNanos) {
+      this.index = index;
+      this.eventCount = eventCount;
+      this.elapsedNanos = elapsedNanos;
+    }
+
+    public EventIndex index() {
+      return index;
+    }
+
+    public long eventCount() {
+      return eventCount;
+    }
+
+    public long elapsedNanos() {
+      return elapsedNanos;
+    }
+
+    public double eventsPerSecond() {
+      return (elapsedNanos == 0) ? 0 : eventCount * 1e9 / elapsedNanos;
+    }
+  }
+
+  private static final int LINES_PER_CHUNK = 8192;
+  private static final String CSV_HEADER = "title,start,end,attendees";
+
+  private final Format format;
+  private final int threads;
+
+  /**
+   * Creates an importer.
+   *
+   * @param format The format of the files to import. Must be non-null.
+   * @param threads How many threads parse at the same time. Must be positive.
+   */
+  public EventImporter(Format format, int threads) {
+    if (format == null) {
+      throw new IllegalArgumentException("format cannot be null");
+    }
+
+    if (threads <= 0) {
+      throw new IllegalArgumentException("threads must be positive");
+    }
+
+    this.format = format;
+    this.threads = threads;
+  }
+
+  /**
+   * Reads every event in {@code path} into a new index.
+   *
+   * @throws IOException if the file can't be read or a line can't be parsed.
+   */
+  public Result importFile(Path path) throws IOException {
+    try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+      return importFrom(reader);
+    }
+  }
+
+  /**
+   * Reads every event from {@code reader} into a new index.
+   *
+   * @throws IOException if the events can't be read or a line can't be parsed.
+   */
+  public Result importFrom(BufferedReader reader) throws IOException {
+    long start = System.nanoTime();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    // Stop reading while every thread has a chunk waiting, so the file isn't read into memory
+    // faster than it can be parsed.
+    Semaphore unparsedChunks = new Semaphore(threads * 2);
+    try {
+      List<Future<Chunk>> chunks = new ArrayList<>();
+      // Chunks that haven't been seen to finish yet. There are never more than the semaphore
+      // allows, so checking them after every chunk is cheap.
+      List<Future<Chunk>> unchecked = new LinkedList<>();
+      long lineNumber = 1;
+      List<String> lines = new ArrayList<>(LINES_PER_CHUNK);
+      for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+        lines.add(line);
+        if (lines.size() == LINES_PER_CHUNK) {
+          Future<Chunk> chunk = submit(executor, unparsedChunks, lines, lineNumber);
+          chunks.add(chunk);
+          unchecked.add(chunk);
+          lineNumber += lines.size();
+          lines = new ArrayList<>(LINES_PER_CHUNK);
+          checkFinished(unchecked);
+        }
+      }
+      chunks.add(submit(executor, unparsedChunks, lines, lineNumber));
+
+      // Combine the chunks in file order, so the result doesn't depend on thread timing.
+      Map<String, LongTimeRangeList> intervalsByAttendee = new HashMap<>();
+      long eventCount = 0;
+      for (Future<Chunk> future : chunks) {
+        Chunk chunk = join(future);
+        eventCount += chunk.eventCount;
+        for (Map.Entry<String, LongTimeRangeList> entry : chunk.intervalsByAttendee.entrySet()) {
+          LongTimeRangeList intervals = intervalsByAttendee.get(entry.getKey());
+          if (intervals == null) {
+            intervalsByAttendee.put(entry.getKey(), entry.getValue());
+          } else {
+            intervals.addAll(entry.getValue());
+          }
+        }
+      }
+
+      EventIndex index = new EventIndex(intervalsByAttendee);
+      return new Result(index, eventCount, System.nanoTime() - start);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Imports the file named by the first argument, in the format named by the second (csv or
+   * ndjson, csv by default), and prints how fast it went.
+   */
+  public static void main(String[] args) throws IOException {
+    Format format = (args.length > 1) ? Format.valueOf(args[1].toUpperCase()) : Format.CSV;
+    EventImporter importer =
+        new EventImporter(format, Runtime.getRuntime().availableProcessors());
+    Result result = importer.importFile(Paths.get(args[0]));
+    System.out.printf("Imported %d events in %.1f ms (%.0f events/s)%n", result.eventCount(),
+        result.elapsedNanos() / 1e6, result.eventsPerSecond());
+  }
+
+  private Future<Chunk> submit(ExecutorService executor, Semaphore unparsedChunks,
+      List<String> lines, long firstLine) throws IOException {
+    try {
+      unparsedChunks.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("interrupted while importing events");
+    }
+
+    return executor.submit(() -> {
+      try {
+        return parse(lines, firstLine);
+      } finally {
+        unparsedChunks.release();
+      }
+    });
+  }
+
+  /**
+   * Removes every finished chunk from {@code unchecked}, throwing if any of them failed so that a
+   * bad line stops the import without reading the rest of the file.
+   */
+  private static void checkFinished(List<Future<Chunk>> unchecked) throws IOException {
+    for (Iterator<Future<Chunk>> iterator = unchecked.iterator(); iterator.hasNext(); ) {
+      Future<Chunk> future = iterator.next();
+      if (future.isDone()) {
+        join(future);
+        iterator.remove();
+      }
+    }
+  }
+
+  private static Chunk join(Future<Chunk> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("interrupted while importing events");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException(e.getCause());
+    }
+  }
+
+  /**
+   * Parses one chunk of lines, the first of which is line {@code firstLine} of the file.
+   */
+  private Chunk parse(List<String> lines, long firstLine) throws IOException {
+    Chunk chunk = new Chunk();
+    for (int i = 0; i < lines.size(); i++) {
+      String line = lines.get(i);
+      long lineNumber = firstLine + i;
+      if (line.trim().isEmpty() || (format == Format.CSV && lineNumber == 1
+          && line.trim().equals(CSV_HEADER))) {
+        continue;
+      }
+
+      try {
+        if (format == Format.CSV) {
+          parseCsv(line, chunk);
+        } else {
+          parseJson(line, chunk);
+        }
+      } catch (IOException | RuntimeException e) {
+        throw new IOException("Line " + lineNumber + ": " + e.getMessage(), e);
+      }
+    }
+    return chunk;
+  }
+
+  private static void parseCsv(String line, Chunk chunk) {
+    List<String> fields = splitCsv(line);
+    if (fields.size() != 4) {
+      throw new IllegalArgumentException("expected 4 fields but found " + fields.size());
+    }
+
+    long interval =
+        pack(Integer.parseInt(fields.get(1).trim()), Integer.parseInt(fields.get(2).trim()));
+    List<String> attendees = new ArrayList<>();
+    for (String attendee : fields.get(3).split(";")) {
+      if (!attendee.isEmpty()) {
+        attendees.add(attendee);
+      }
+    }
+    chunk.add(interval, attendees);
+  }
+
+  private static void parseJson(String line, Chunk chunk) throws IOException {
+    JsonReader reader = new JsonReader(new StringReader(line));
+    long interval = -1;
+    List<String> attendees = new ArrayList<>();
+
+    reader.beginObject();
+    while (reader.hasNext()) {
+      switch (reader.nextName()) {
+        case "when":
+          reader.beginArray();
+          int start = reader.nextInt();
+          int end = reader.nextInt();
+          reader.endArray();
+          interval = pack(start, end);
+          break;
+        case "attendees":
+          reader.beginArray();
+          while (reader.hasNext()) {
+            attendees.add(reader.nextString());
+          }
+          reader.endArray();
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+    reader.endObject();
+
+    if (interval == -1) {
+      throw new IllegalArgumentException("missing when");
+    }
+    chunk.add(interval, attendees);
+  }
+
+  private static long pack(int start, int end) {
+    if (start < 0 || end < start) {
+      throw new IllegalArgumentException("invalid time range " + start + " to " + end);
+    }
+    return LongTimeRange.pack(start, end);
+  }
+
+  /**
+   * Splits one line of CSV into its fields, unquoting any that are quoted.
+   */
+  private static List<String> splitCsv(String line) {
+    List<String> fields = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (quoted) {
+        if (c != '"') {
+          field.append(c);
+        } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          field.append('"');
+          i++;
+        } else {
+          quoted = false;
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else {
+        field.append(c);
+      }
+    }
+    fields.add(field.toString());
+    return fields;
+  }
+
+  /**
+   * The intervals parsed from one chunk of lines.
+   */
+  private static final class Chunk {
+    final Map<String, LongTimeRangeList> intervalsByAttendee = new HashMap<>();
+    long eventCount;
+
+    void add(long interval, List<String> attendees) {
+      AttendeeRegistry registry = AttendeeRegistry.global();
+      for (String attendee : attendees) {
+        // Use the registry's copy of the name so that each name is only kept once.
+        String name = registry.nameOf(registry.intern(attendee));
+        intervalsByAttendee.computeIfAbsent(name, key -> new LongTimeRangeList()).add(interval);
+      }
+      eventCount++;
+    }
+  }
+}
@@ -0,0 +1,334 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * An index from each attendee to the time they are busy, built from a collection of events.
+ * Every attendee's busy time is kept sorted and pre-merged, so a query only has to look at the
+ * requested attendees' own intervals instead of scanning the whole calendar.
+ *
+ * <p>Large groups are combined with per-attendee {@link AvailabilityBitmap}s instead, which are
+ * built the first time an attendee is part of one and kept until their schedule changes. Then the
+ * cost is a few word ORs per attendee no matter how many events they have. A bitmap only covers a
+ * single day, so a group with anyone busy outside of day 0 is merged as intervals as usual.
+ *
+ * <p>Events can be added and removed after the index is built. Each change only touches the
+ * schedules of the event's attendees. Queries never block on each other and always see the index
+ * either entirely before or entirely after a change.
+ */
+public final class EventIndex {
+  // Groups at least this big are combined as bitmaps rather than by merging their intervals.
+  static final int BITMAP_GROUP_SIZE = 64;
+
+  // Each attendee's schedule is immutable and replaced as a whole when it changes.
+  private final Map<String, Schedule> schedules = new ConcurrentHashMap<>();
+
+  // How many copies of each event have been added. Only read and written under the write lock.
+  private final Map<Event, Integer> eventCounts = new HashMap<>();
+
+  private final StampedLock lock = new StampedLock();
+
+  private volatile long version;
+
+  /**
+   * Creates an empty index.
+   */
+  public EventIndex() {}
+
+  /**
+   * Creates an index of {@code events}.
+   *
+   * @param events The events to index. Must be non-null.
+   */
+  public EventIndex(Collection<Event> events) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null. Use empty array instead.");
+    }
+
+    Map<String, LongTimeRangeList> intervalsByAttendee = new HashMap<>();
+    for (Event event : events) {
+      eventCounts.merge(event, 1, Integer::sum);
+      long interval = LongTimeRange.of(event.getWhen());
+      for (String attendee : event.getAttendees()) {
+        intervalsByAttendee.computeIfAbsent(attendee, key -> new LongTimeRangeList()).add(interval);
+      }
+    }
+
+    putSchedules(intervalsByAttendee);
+  }
+
+  /**
+   * Creates an index straight from each attendee's busy intervals, packed with
+   * {@link LongTimeRange}, in any order. There are no {@link Event}s behind the intervals, so they
+   * can't be removed with {@link #removeEvent}.
+   */
+  EventIndex(Map<String, LongTimeRangeList> intervalsByAttendee) {
+    putSchedules(intervalsByAttendee);
+  }
+
+  private void putSchedules(Map<String, LongTimeRangeList> intervalsByAttendee) {
+    for (Map.Entry<String, LongTimeRangeList> entry : intervalsByAttendee.entrySet()) {
+      entry.getValue().sort();
+      schedules.put(entry.getKey(), new Schedule(entry.getValue().toArray()));
+    }
+  }
+
+  /**
+   * Adds {@code event} to the index. Adding the same event twice means it has to be removed twice
+   * before its time is free again.
+   *
+   * @param event The event to add. Must be non-null.
+   */
+  public void addEvent(Event event) {
+    if (event == null) {
+      throw new IllegalArgumentException("event cannot be null");
+    }
+
+    long stamp = lock.writeLock();
+    try {
+      eventCounts.merge(event, 1, Integer::sum);
+      long interval = LongTimeRange.of(event.getWhen());
+      for (String attendee : event.getAttendees()) {
+        schedules.put(attendee, schedules.getOrDefault(attendee, Schedule.EMPTY).with(interval));
+      }
+      version++;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Removes one copy of {@code event} from the index. Events are matched with
+   * {@link Event#equals}, so only an event with the same title, time and attendees is removed.
+   *
+   * @return true if the event was in the index.
+   */
+  public boolean removeEvent(Event event) {
+    if (event == null) {
+      throw new IllegalArgumentException("event cannot be null");
+    }
+
+    long stamp = lock.writeLock();
+    try {
+      Integer count = eventCounts.get(event);
+      if (count == null) {
+        return false;
+      }
+      if (count == 1) {
+        eventCounts.remove(event);
+      } else {
+        eventCounts.put(event, count - 1);
+      }
+
+      long interval = LongTimeRange.of(event.getWhen());
+      for (String attendee : event.getAttendees()) {
+        Schedule schedule = schedules.get(attendee).without(interval);
+        if (schedule.intervals.length == 0) {
+          schedules.remove(attendee);
+        } else {
+          schedules.put(attendee, schedule);
+        }
+      }
+      version++;
+      return true;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Returns a number that changes every time an event is added or removed. Two calls that return
+   * the same number saw the same events.
+   */
+  public long version() {
+    return version;
+  }
+
+  /**
+   * Returns the merged ranges, in ascending order, during which {@code attendee} is busy.
+   */
+  public List<TimeRange> getBusyTime(String attendee) {
+    Schedule schedule = schedules.get(attendee);
+    if (schedule == null) {
+      return Collections.emptyList();
+    }
+
+    IntervalBuffer busyTime = schedule.busyTime;
+    List<TimeRange> ranges = new ArrayList<>(busyTime.size());
+    for (int i = 0; i < busyTime.size(); i++) {
+      ranges.add(TimeRange.fromStartEnd(busyTime.start(i), busyTime.end(i), false));
+    }
+    return ranges;
+  }
+
+  /**
+   * Returns every range of the day during which none of {@code attendees} are busy and that is at
+   * least {@code duration} minutes long. The cost depends only on how many intervals the
+   * requested attendees have, not on the size of the calendar.
+   */
+  List<TimeRange> availableTime(Collection<String> attendees, long duration) {
+    return busyTime(attendees).availableTime(duration);
+  }
+
+  /**
+   * Returns the union of the busy time of all of {@code attendees}, merged. The answer always
+   * comes from a single version of the index.
+   */
+  IntervalBuffer busyTime(Collection<String> attendees) {
+    if (attendees.size() >= BITMAP_GROUP_SIZE) {
+      return read(() -> collectBusyBitmap(attendees));
+    }
+    return read(() -> collectBusyTime(attendees));
+  }
+
+  /**
+   * Returns what {@code reader} reads from a single version of the index.
+   */
+  private <T> T read(Supplier<T> reader) {
+    // Read without locking first. If an event was added or removed while reading, read again
+    // while holding the lock.
+    long stamp = lock.tryOptimisticRead();
+    T result = reader.get();
+    if (!lock.validate(stamp)) {
+      stamp = lock.readLock();
+      try {
+        result = reader.get();
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the union of the busy time of all of {@code attendees}, merged.
+   */
+  private IntervalBuffer collectBusyTime(Collection<String> attendees) {
+    IntervalBuffer busyTime = new IntervalBuffer();
+    for (String attendee : attendees) {
+      Schedule schedule = schedules.get(attendee);
+      if (schedule == null) {
+        continue;
+      }
+      for (int i = 0; i < schedule.busyTime.size(); i++) {
+        busyTime.add(schedule.busyTime.start(i), schedule.busyTime.end(i));
+      }
+    }
+    busyTime.merge();
+    return busyTime;
+  }
+
+  /**
+   * Returns the same as {@link #collectBusyTime}, combining the attendees as bitmaps when all of
+   * their busy time is within day 0.
+   */
+  private IntervalBuffer collectBusyBitmap(Collection<String> attendees) {
+    AvailabilityBitmap busy = new AvailabilityBitmap();
+    for (String attendee : attendees) {
+      Schedule schedule = schedules.get(attendee);
+      if (schedule == null) {
+        continue;
+      }
+      if (!schedule.withinDay) {
+        // The bitmap would drop everything after the first day.
+        return collectBusyTime(attendees);
+      }
+      busy.or(schedule.bitmap());
+    }
+    return busy.busyTime();
+  }
+
+  /**
+   * The time one attendee is busy. Schedules are never changed once created; adding or removing an
+   * interval returns a new schedule.
+   */
+  private static final class Schedule {
+    static final Schedule EMPTY = new Schedule(new long[0]);
+
+    // Every interval the attendee is busy for, packed with LongTimeRange and sorted. Duplicates
+    // are kept so that removing one of two identical events leaves the other in place.
+    final long[] intervals;
+
+    // The intervals merged into disjoint ranges.
+    final IntervalBuffer busyTime;
+
+    // Whether all of the busy time is within day 0, so that it fits in a bitmap.
+    final boolean withinDay;
+
+    // The same time as a bitmap, built the first time the attendee is part of a large group.
+    // Racing threads build equal bitmaps, so whichever is stored last is as good as any other.
+    private volatile AvailabilityBitmap bitmap;
+
+    Schedule(long[] intervals) {
+      this.intervals = intervals;
+      this.busyTime = new IntervalBuffer(intervals.length);
+      for (long interval : intervals) {
+        busyTime.add(LongTimeRange.start(interval), LongTimeRange.end(interval));
+      }
+      busyTime.merge();
+      this.withinDay = busyTime.size() == 0 || (busyTime.start(0) >= TimeRange.START_OF_DAY
+          && busyTime.end(busyTime.size() - 1) <= TimeRange.WHOLE_DAY.duration());
+    }
+
+    AvailabilityBitmap bitmap() {
+      AvailabilityBitmap current = bitmap;
+      if (current == null) {
+        current = new AvailabilityBitmap();
+        for (int i = 0; i < busyTime.size(); i++) {
+          current.markBusy(busyTime.start(i), busyTime.end(i));
+        }
+        bitmap = current;
+      }
+      return current;
+    }
+
+    Schedule with(long interval) {
+      int index = Arrays.binarySearch(intervals, interval);
+      if (index < 0) {
+        index = -index - 1;
+      }
+
+      long[] updated = new long[intervals.length + 1];
+      System.arraycopy(intervals, 0, updated, 0, index);
+      updated[index] = interval;
+      System.arraycopy(intervals, index, updated, index + 1, intervals.length - index);
+      return new Schedule(updated);
+    }
+
+    Schedule without(long interval) {
+      int index = Arrays.binarySearch(intervals, interval);
+      if (index < 0) {
+        return this;
+      }
+
+      long[] updated = new long[intervals.length - 1];
+      System.arraycopy(intervals, 0, updated, 0, index);
+      System.arraycopy(intervals, index + 1, updated, index, updated.length - index);
+      return new Schedule(updated);
+    }
+  }
+}
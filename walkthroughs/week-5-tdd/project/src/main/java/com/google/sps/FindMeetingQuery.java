@@ -14,117 +14,417 @@
 
 package com.google.sps;
 
-import java.util.Arrays;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.function.Function;
 
 public final class FindMeetingQuery {
+  private final AvailabilityEngine engine;
+  private final SchedulerMetrics metrics;
+
+  // Whether {@code engine} is someone else's, rather than the reference implementation.
+  private final boolean customEngine;
+
+  // The working hours to respect, or null if attendees can meet at any time.
+  private final WorkingHoursConstraints workingHours;
+
+  /**
+   * Creates a query that uses the reference implementation to find available time.
+   */
+  public FindMeetingQuery() {
+    this(SchedulerMetrics.NOOP);
+  }
+
+  /**
+   * Creates a query that uses the reference implementation to find available time and reports
+   * what it does to {@code metrics}.
+   *
+   * @param metrics Where to record timings and counts. Must be non-null.
+   */
+  public FindMeetingQuery(SchedulerMetrics metrics) {
+    if (metrics == null) {
+      throw new IllegalArgumentException("metrics cannot be null");
+    }
+
+    this.engine = this::determineAvailableTime;
+    this.metrics = metrics;
+    this.customEngine = false;
+    this.workingHours = null;
+  }
+
+  /**
+   * Creates a query that uses {@code engine} to find available time.
+   *
+   * @param engine The engine used to compute when attendees are free. Must be non-null.
+   */
+  public FindMeetingQuery(AvailabilityEngine engine) {
+    this(engine, SchedulerMetrics.NOOP);
+  }
+
+  /**
+   * Creates a query that uses {@code engine} to find available time and reports what it does to
+   * {@code metrics}. The engine's work is only timed as a whole, as part of
+   * {@link SchedulerMetrics.Phase#QUERY} and {@link SchedulerMetrics.Phase#OPTIONALS}.
+   *
+   * @param engine The engine used to compute when attendees are free. Must be non-null.
+   * @param metrics Where to record timings and counts. Must be non-null.
+   */
+  public FindMeetingQuery(AvailabilityEngine engine, SchedulerMetrics metrics) {
+    if (engine == null) {
+      throw new IllegalArgumentException("engine cannot be null");
+    }
+
+    if (metrics == null) {
+      throw new IllegalArgumentException("metrics cannot be null");
+    }
+
+    this.engine = engine;
+    this.metrics = metrics;
+    this.customEngine = true;
+    this.workingHours = null;
+  }
+
+  private FindMeetingQuery(FindMeetingQuery query, WorkingHoursConstraints workingHours) {
+    this.engine = query.customEngine ? query.engine : this::determineAvailableTime;
+    this.metrics = query.metrics;
+    this.customEngine = query.customEngine;
+    this.workingHours = workingHours;
+  }
+
+  /**
+   * Returns a query like this one that only offers times within the working hours of every
+   * attendee who has them. Times are taken to be minutes of the UTC day.
+   *
+   * <p>The off-hours masks are added to the busy time before gaps are searched for, so no gap
+   * outside working hours is ever built. A custom engine only returns free time, so with one the
+   * free time is clipped to working hours afterwards instead.
+   *
+   * @param workingHours The working hours to respect. Must be non-null.
+   */
+  public FindMeetingQuery withWorkingHours(WorkingHoursConstraints workingHours) {
+    if (workingHours == null) {
+      throw new IllegalArgumentException("workingHours cannot be null");
+    }
+
+    return new FindMeetingQuery(this, workingHours);
+  }
 
   /**
    * Given the collection of events, this method returns a collection of all time ranges
    * that are viable for the requested meeting.
    */
   public Collection<TimeRange> query(Collection<Event> events, MeetingRequest request) {
-    List<TimeRange> validTimeRanges = new ArrayList<>();
-    if (request.getDuration() > TimeRange.WHOLE_DAY.duration()) {
-      return validTimeRanges;
+    return query(request,
+        attendees -> engineAvailableTime(events, attendees, request.getDuration()));
+  }
+
+  /**
+   * Same as {@link #query(Collection, MeetingRequest)}, but reads the attendees' busy time from
+   * a prebuilt index. The cost depends on the attendees' own events rather than the whole
+   * calendar.
+   */
+  public Collection<TimeRange> query(EventIndex index, MeetingRequest request) {
+    return query(request, attendees ->
+        availableTime(index::busyTime, attendees, request.getDuration()));
+  }
+
+  /**
+   * Same as {@link #query(Collection, MeetingRequest)}, but gathers the attendees' busy time from
+   * the shards of a {@link ShardedCalendar}. Only the merging of the shards' answers and the
+   * search for gaps happen here.
+   */
+  public Collection<TimeRange> query(ShardedCalendar calendar, MeetingRequest request) {
+    return query(request, attendees ->
+        availableTime(calendar::busyTime, attendees, request.getDuration()));
+  }
+
+  /**
+   * Same as {@link #query(Collection, MeetingRequest)}, but reads the attendees' busy time
+   * straight out of a memory-mapped {@link MappedEventStore}.
+   */
+  public Collection<TimeRange> query(MappedEventStore store, MeetingRequest request) {
+    return query(request, attendees ->
+        availableTime(store::busyTime, attendees, request.getDuration()));
+  }
+
+  /**
+   * Answers many meeting requests against the same events at once. The events are indexed once,
+   * and the merged busy time of each distinct group of attendees is computed only once no matter
+   * how many requests share it, so requests that differ only in duration are nearly free.
+   *
+   * @return the answer to each request, in the same order as {@code requests}.
+   */
+  public List<Collection<TimeRange>> queryAll(
+      Collection<Event> events, List<MeetingRequest> requests) {
+    EventIndex index = new EventIndex(events);
+    Map<Set<String>, IntervalBuffer> busyTimeByGroup = new HashMap<>();
+
+    List<Collection<TimeRange>> answers = new ArrayList<>(requests.size());
+    for (MeetingRequest request : requests) {
+      answers.add(query(request, attendees ->
+          constrain(busyTimeByGroup.computeIfAbsent(new HashSet<>(attendees), index::busyTime),
+              attendees).availableTime(request.getDuration())));
     }
- 
-    return considerOptionals(
-        determineAvailableTime(events, request.getAttendees(), request.getDuration()),
-        events, request);
+    return answers;
   }
 
   /**
-   * @return a Set containing all the unavailable time in the day.
+   * Returns up to {@code k} time ranges when every mandatory attendee is free, ranked by how many
+   * optional attendees are free for the whole range. Ranges with the same attendance are ordered
+   * by start time.
+   *
+   * <p>Unlike {@link #query}, optional attendees are not all-or-nothing. The mandatory free time
+   * is split wherever an optional attendee becomes busy or free, and each piece that is still long
+   * enough for the meeting is a candidate. Everything is found in a single sweep, so this runs in
+   * O(n log n) for n events rather than trying every subset of optional attendees.
    */
-  private Set<TimeRange> determineUnavailableTime(Collection<Event> events, Collection<String> attendees) {
-    TreeSet<TimeRange> timeTaken = new TreeSet<>((range1, range2) -> {
-      if (range1.start() < range2.start()) {
-        return -1;
-      } else if (range1.start() > range2.start()) {
-        return 1;
-      } else {
-        return 0;
+  public List<TimeRange> bestSlots(Collection<Event> events, MeetingRequest request, int k) {
+    if (k < 0) {
+      throw new IllegalArgumentException("k cannot be negative");
+    }
+
+    long duration = request.getDuration();
+    if (k == 0 || duration > TimeRange.WHOLE_DAY.duration()) {
+      return new ArrayList<>();
+    }
+
+    List<TimeRange> mandatoryFreeTime =
+        engineAvailableTime(events, request.getAttendees(), duration);
+    long[] boundaries = optionalBoundaries(events, request.getOptionalAttendees());
+    int optionalCount = request.getOptionalAttendees().size();
+
+    // Keep the best k candidates seen so far, with the worst of them at the head of the queue.
+    // Every boundary splits at most one free range, which bounds how many candidates there are.
+    Comparator<Slot> byRank = Comparator.<Slot>comparingInt(slot -> slot.attendance)
+        .thenComparing(slot -> slot.range, TimeRange.ORDER_BY_START.reversed());
+    int candidates = mandatoryFreeTime.size() + boundaries.length;
+    PriorityQueue<Slot> best = new PriorityQueue<>(Math.max(1, Math.min(k, candidates)), byRank);
+
+    int next = 0;
+    int busyOptionals = 0;
+    for (TimeRange freeRange : mandatoryFreeTime) {
+      // Catch up on every optional attendee who became busy or free before this range.
+      while (next < boundaries.length && boundaryTime(boundaries[next]) <= freeRange.start()) {
+        busyOptionals += boundaryDelta(boundaries[next++]);
       }
-    });
 
-    // TODO: Can make this O(n + m) rather than O(n * m).
-    for (String attendee : attendees) {
-      for (Event event : events) {
-        if (event.getAttendees().contains(attendee)) {
-          timeTaken.add(event.getWhen());
+      int from = freeRange.start();
+      while (from < freeRange.end()) {
+        int to = freeRange.end();
+        if (next < boundaries.length) {
+          to = Math.min(to, boundaryTime(boundaries[next]));
         }
+
+        if (to - from >= duration) {
+          int attendance = optionalCount - busyOptionals;
+          best.add(new Slot(TimeRange.fromStartEnd(from, to, false), attendance));
+          if (best.size() > k) {
+            best.poll();
+          }
+        }
+
+        while (next < boundaries.length && boundaryTime(boundaries[next]) == to) {
+          busyOptionals += boundaryDelta(boundaries[next++]);
+        }
+        from = to;
       }
     }
-    return combineRanges(timeTaken);
+
+    List<Slot> ranked = new ArrayList<>(best);
+    ranked.sort(byRank.reversed());
+    List<TimeRange> slots = new ArrayList<>(ranked.size());
+    for (Slot slot : ranked) {
+      slots.add(slot.range);
+    }
+    return slots;
   }
 
   /**
-   * Combines all ranges that overlap or are back-to-back into one range.
+   * Returns the times at which an optional attendee becomes busy or free, sorted. Each optional
+   * attendee's events and off hours are merged first so that a person is only counted once at any
+   * moment.
    */
-  private TreeSet<TimeRange> combineRanges(TreeSet<TimeRange> timeRanges) {
-    Iterator<TimeRange> iterator = timeRanges.iterator();
-    TimeRange currentRange = (iterator.hasNext()) ? iterator.next() : null;
+  private long[] optionalBoundaries(
+      Collection<Event> events, Collection<String> optionalAttendees) {
+    AttendeeRegistry registry = AttendeeRegistry.global();
+    BitSet optionalIds = registry.findAll(optionalAttendees);
+    Map<String, IntervalBuffer> busyTimeByAttendee = new HashMap<>();
+    if (!optionalIds.isEmpty()) {
+      for (Event event : events) {
+        for (int id : event.attendeeIds()) {
+          if (optionalIds.get(id)) {
+            busyTimeByAttendee.computeIfAbsent(registry.nameOf(id), key -> new IntervalBuffer())
+                .add(event.getWhen());
+          }
+        }
+      }
+    }
 
-    while (currentRange != null && iterator.hasNext()) {
-      TimeRange nextRange = iterator.next();
-      if (currentRange.overlaps(nextRange) || currentRange.end() == nextRange.start()) {
-        timeRanges.remove(currentRange);
-        timeRanges.remove(nextRange);
-        timeRanges.add(TimeRange.fromStartEnd(
-            Math.min(currentRange.start(), nextRange.start()),
-            Math.max(currentRange.end(), nextRange.end()),
-            false));
+    int count = 0;
+    for (String attendee : optionalAttendees) {
+      IntervalBuffer busyTime = busyTimeByAttendee.getOrDefault(attendee, new IntervalBuffer());
+      busyTime.merge();
+      // Someone outside of their working hours can't come either, events or not.
+      busyTime = constrain(busyTime, Collections.singletonList(attendee));
+      busyTimeByAttendee.put(attendee, busyTime);
+      count += busyTime.size();
+    }
 
-        // Reset iterator to contain the newly combined piece.
-        iterator = timeRanges.iterator();
-        currentRange = iterator.next();
-      } else {
-        currentRange = nextRange;  // Store current range for comparing with the next.
+    long[] boundaries = new long[count * 2];
+    int size = 0;
+    for (IntervalBuffer busyTime : busyTimeByAttendee.values()) {
+      for (int i = 0; i < busyTime.size(); i++) {
+        boundaries[size++] = ((long) busyTime.start(i) << 1) | 1;
+        boundaries[size++] = ((long) busyTime.end(i) << 1);
       }
     }
-    return timeRanges;
+    Arrays.sort(boundaries);
+    return boundaries;
+  }
+
+  private static int boundaryTime(long boundary) {
+    return (int) (boundary >> 1);
   }
 
   /**
-   * Returns a list containing all the TimeRanges that the given collection of attendees are available for given
-   * a collection of their events for that day.
+   * Returns +1 if the boundary is where an optional attendee becomes busy, or -1 if it is where
+   * they become free again.
    */
-  private List<TimeRange> determineAvailableTime(Collection<Event> events, Collection<String> attendees, long meetingDuration) {
-    Iterator<TimeRange> unavailableTimeIterator = determineUnavailableTime(events, attendees).iterator();
-    TimeRange currentEvent = (unavailableTimeIterator.hasNext()) ?  unavailableTimeIterator.next() : null;
-    if (currentEvent == null) {  // There are no events in the day.
-      return Arrays.asList(TimeRange.WHOLE_DAY);
+  private static int boundaryDelta(long boundary) {
+    return ((boundary & 1) == 1) ? 1 : -1;
+  }
+
+  /**
+   * A candidate meeting time and how many optional attendees can make it.
+   */
+  private static final class Slot {
+    final TimeRange range;
+    final int attendance;
+
+    Slot(TimeRange range, int attendance) {
+      this.range = range;
+      this.attendance = attendance;
     }
-    
-    List<TimeRange> availableTime = new ArrayList<>();
-    if (TimeRange.START_OF_DAY < currentEvent.start()
-        && currentEvent.start() - TimeRange.START_OF_DAY >= meetingDuration) {
-      availableTime.add(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, currentEvent.start(), false));
+  }
+
+  /**
+   * Returns when {@code attendees} are free according to the engine. The reference engine applies
+   * working hours itself; the free time of a custom engine is clipped to them here.
+   */
+  private List<TimeRange> engineAvailableTime(
+      Collection<Event> events, Collection<String> attendees, long duration) {
+    List<TimeRange> availableTime = engine.findAvailableTime(events, attendees, duration);
+    if (!customEngine || workingHours == null) {
+      return availableTime;
     }
 
-    while (unavailableTimeIterator.hasNext()) {
-      TimeRange nextEvent = unavailableTimeIterator.next();
+    IntervalBuffer offHours = workingHours.offHours(attendees);
+    if (offHours == null) {
+      return availableTime;
+    }
 
-      if (nextEvent.start() - currentEvent.end() >= meetingDuration) {
-        availableTime.add(TimeRange.fromStartEnd(currentEvent.end(), nextEvent.start(), false));
-      }
-      currentEvent = nextEvent;
+    // Everything the engine didn't offer counts as busy, then the off hours are added on top.
+    IntervalBuffer busyTime = new IntervalBuffer(availableTime.size() + 1);
+    int busyFrom = TimeRange.START_OF_DAY;
+    for (TimeRange range : availableTime) {
+      busyTime.add(busyFrom, range.start());
+      busyFrom = range.end();
     }
+    busyTime.add(busyFrom, TimeRange.WHOLE_DAY.end());
+    busyTime.merge();
+    return IntervalBuffer.union(busyTime, offHours).availableTime(duration);
+  }
 
-    if (currentEvent.end() < TimeRange.END_OF_DAY
-        && TimeRange.END_OF_DAY - currentEvent.end() + 1 >= meetingDuration) {
-      availableTime.add(TimeRange.fromStartEnd(currentEvent.end(), TimeRange.END_OF_DAY, true));
+  /**
+   * Returns {@code busyTime} with the off hours of {@code attendees} added, if there are any.
+   */
+  private IntervalBuffer constrain(IntervalBuffer busyTime, Collection<String> attendees) {
+    if (workingHours == null) {
+      return busyTime;
     }
+
+    IntervalBuffer offHours = workingHours.offHours(attendees);
+    return (offHours == null) ? busyTime : IntervalBuffer.union(busyTime, offHours);
+  }
+
+  /**
+   * Returns the free time of {@code attendees} from their merged busy time, timing both steps.
+   */
+  private List<TimeRange> availableTime(Function<Collection<String>, IntervalBuffer> busyTime,
+      Collection<String> attendees, long duration) {
+    long start = System.nanoTime();
+    IntervalBuffer busy = constrain(busyTime.apply(attendees), attendees);
+    long found = System.nanoTime();
+    List<TimeRange> availableTime = busy.availableTime(duration);
+    metrics.recordPhase(SchedulerMetrics.Phase.BUSY_TIME, found - start);
+    metrics.recordPhase(SchedulerMetrics.Phase.GAPS, System.nanoTime() - found);
+    return availableTime;
+  }
+
+  /**
+   * Returns all time ranges that are viable for the requested meeting, using
+   * {@code availableTime} to find when a group of attendees is free.
+   */
+  Collection<TimeRange> query(
+      MeetingRequest request, Function<Collection<String>, List<TimeRange>> availableTime) {
+    long start = System.nanoTime();
+    List<TimeRange> validTimeRanges = new ArrayList<>();
+    if (request.getDuration() > TimeRange.WHOLE_DAY.duration()) {
+      return validTimeRanges;
+    }
+ 
+    Collection<TimeRange> answer =
+        considerOptionals(availableTime.apply(request.getAttendees()), availableTime, request);
+    metrics.recordPhase(SchedulerMetrics.Phase.QUERY, System.nanoTime() - start);
+    return answer;
+  }
+
+  /**
+   * @return a buffer containing all the unavailable time in the day, merged into disjoint ranges.
+   */
+  private IntervalBuffer determineUnavailableTime(Collection<Event> events, Collection<String> attendees) {
+    long start = System.nanoTime();
+    IntervalBuffer timeTaken = new IntervalBuffer();
+
+    // TODO: Can make this O(n + m) rather than O(n * m).
+    for (String attendee : attendees) {
+      for (Event event : events) {
+        if (event.getAttendees().contains(attendee)) {
+          timeTaken.add(event.getWhen());
+        }
+      }
+    }
+    long found = System.nanoTime();
+    metrics.recordEventsScanned((long) events.size() * attendees.size());
+    metrics.recordIntervalsMerged(timeTaken.size());
+
+    timeTaken.merge();
+    metrics.recordPhase(SchedulerMetrics.Phase.BUSY_TIME, found - start);
+    metrics.recordPhase(SchedulerMetrics.Phase.MERGE, System.nanoTime() - found);
+    return timeTaken;
+  }
+
+  /**
+   * Returns a list containing all the TimeRanges that the given collection of attendees are available for given
+   * a collection of their events for that day.
+   */
+  private List<TimeRange> determineAvailableTime(Collection<Event> events, Collection<String> attendees, long meetingDuration) {
+    IntervalBuffer unavailableTime =
+        constrain(determineUnavailableTime(events, attendees), attendees);
+    long start = System.nanoTime();
+    List<TimeRange> availableTime = unavailableTime.availableTime(meetingDuration);
+    metrics.recordPhase(SchedulerMetrics.Phase.GAPS, System.nanoTime() - start);
     return availableTime;
   }
 
@@ -132,28 +432,32 @@ public final class FindMeetingQuery {
    * Given the set of meeting times, this method refits the potential meeting times to fit
    * optional attendees with the schedule, if applicable.
    */
-  private Collection<TimeRange> considerOptionals(
-      List<TimeRange> meetingTimes, Collection<Event> events, MeetingRequest request) {
+  private Collection<TimeRange> considerOptionals(List<TimeRange> meetingTimes,
+      Function<Collection<String>, List<TimeRange>> availableTime, MeetingRequest request) {
     if (request.getOptionalAttendees().isEmpty()) {
       return meetingTimes;
     }
 
+    long start = System.nanoTime();
     Collection<String> allAttendees = new HashSet<>();;
     allAttendees.addAll(request.getAttendees());
     allAttendees.addAll(request.getOptionalAttendees());
 
-    Collection<TimeRange> totalAvailableTime = 
-        determineAvailableTime(events, allAttendees, request.getDuration());
+    Collection<TimeRange> totalAvailableTime = availableTime.apply(allAttendees);
     Iterator<TimeRange> totalAvailableTimeIterator = totalAvailableTime.iterator();
     
+    Collection<TimeRange> answer;
     if (totalAvailableTimeIterator.hasNext()) {
-      return totalAvailableTime;
+      answer = totalAvailableTime;
     } else {
       if (request.getAttendees().isEmpty()) {  // Consider when there are no mandatory attendees.
-        return totalAvailableTime;
+        answer = totalAvailableTime;
       } else {
-        return meetingTimes;
+        answer = meetingTimes;
       }
     }
+    metrics.recordOptionalAttendees(answer == meetingTimes);
+    metrics.recordPhase(SchedulerMetrics.Phase.OPTIONALS, System.nanoTime() - start);
+    return answer;
   }
 }
@@ -0,0 +1,115 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Finds meeting times over a horizon of many days rather than a single day. Event times are
+ * minute offsets from the start of the horizon, so an event on the third day at 9:00 starts at
+ * {@code toMinutes(2, 9, 0)}. The events are indexed once, and each query is a single sweep over
+ * the requested attendees' busy time, so "the first few free slots in the next two weeks" costs
+ * one pass instead of one full query per day.
+ */
+public final class HorizonScheduler {
+  private static final int MINUTES_PER_DAY = TimeRange.WHOLE_DAY.duration();
+
+  private final EventIndex index;
+
+  /**
+   * Creates a scheduler over {@code events}, whose times are minute offsets into the horizon.
+   */
+  public HorizonScheduler(Collection<Event> events) {
+    this(new EventIndex(events));
+  }
+
+  /**
+   * Creates a scheduler that reads busy time from {@code index}. Changes to the index are seen by
+   * later queries.
+   */
+  public HorizonScheduler(EventIndex index) {
+    if (index == null) {
+      throw new IllegalArgumentException("index cannot be null");
+    }
+
+    this.index = index;
+  }
+
+  /**
+   * Returns the minute offset of {@code hours}:{@code minutes} on day {@code day} of the horizon,
+   * where the first day is day 0.
+   */
+  public static int toMinutes(int day, int hours, int minutes) {
+    if (day < 0) {
+      throw new IllegalArgumentException("day cannot be negative");
+    }
+
+    long minute = (long) day * MINUTES_PER_DAY + TimeRange.getTimeInMinutes(hours, minutes);
+    if (minute > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("day is too far into the horizon");
+    }
+    return (int) minute;
+  }
+
+  /**
+   * Returns up to {@code limit} ranges, in ascending order, during which none of
+   * {@code attendees} are busy, that are at least {@code duration} minutes long, and that fall
+   * within the {@code days} days starting at minute {@code from}. A range may cross midnight, and
+   * {@code duration} may be longer than a day.
+   */
+  public List<TimeRange> firstFreeSlots(
+      Collection<String> attendees, long duration, int from, int days, int limit) {
+    if (days < 0) {
+      throw new IllegalArgumentException("days cannot be negative");
+    }
+
+    if (limit < 0) {
+      throw new IllegalArgumentException("limit cannot be negative");
+    }
+
+    long to = (long) from + (long) days * MINUTES_PER_DAY;
+    if (to > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("window ends too far into the horizon");
+    }
+    return index.busyTime(attendees).freeTime(from, (int) to, duration, limit);
+  }
+
+  /**
+   * Same as {@link #firstFreeSlots(Collection, long, int, int, int)} for a meeting request, with
+   * optional attendees treated the same way {@link FindMeetingQuery#query} treats them: if there
+   * are slots where everyone can come those are returned, otherwise only the mandatory attendees
+   * are considered.
+   */
+  public List<TimeRange> firstFreeSlots(MeetingRequest request, int from, int days, int limit) {
+    List<TimeRange> mandatorySlots =
+        firstFreeSlots(request.getAttendees(), request.getDuration(), from, days, limit);
+    if (request.getOptionalAttendees().isEmpty()) {
+      return mandatorySlots;
+    }
+
+    Collection<String> allAttendees = new HashSet<>(request.getAttendees());
+    allAttendees.addAll(request.getOptionalAttendees());
+    List<TimeRange> allSlots =
+        firstFreeSlots(allAttendees, request.getDuration(), from, days, limit);
+
+    if (!allSlots.isEmpty() || request.getAttendees().isEmpty()) {
+      return allSlots;
+    }
+    return mandatorySlots;
+  }
+}
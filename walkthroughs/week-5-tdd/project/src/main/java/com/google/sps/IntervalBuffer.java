@@ -0,0 +1,195 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A growable buffer of busy intervals stored as packed {@link LongTimeRange}s. Intervals are added
+ * in any order, then {@link #merge()} sorts them once and combines overlapping or back-to-back
+ * intervals in a single pass, in place. No {@code TimeRange} objects are created until the free
+ * time is read back out with {@link #availableTime(long)}.
+ */
+final class IntervalBuffer {
+  private final LongTimeRangeList intervals;
+
+  IntervalBuffer() {
+    intervals = new LongTimeRangeList();
+  }
+
+  IntervalBuffer(int capacity) {
+    intervals = new LongTimeRangeList(capacity);
+  }
+
+  /**
+   * Adds the interval [{@code start}, {@code end}). Empty intervals are ignored since they do not
+   * take up any time.
+   */
+  void add(int start, int end) {
+    if (end > start) {
+      intervals.add(LongTimeRange.pack(start, end));
+    }
+  }
+
+  void add(TimeRange range) {
+    add(range.start(), range.end());
+  }
+
+  /**
+   * Sorts the intervals by start time and combines all intervals that overlap or are back-to-back
+   * into one. Afterwards the buffer holds disjoint intervals in ascending order.
+   */
+  void merge() {
+    if (intervals.size() < 2) {
+      return;
+    }
+
+    intervals.sort();
+    int merged = 0;
+    for (int i = 1; i < intervals.size(); i++) {
+      long current = intervals.get(merged);
+      long next = intervals.get(i);
+      if (LongTimeRange.start(next) <= LongTimeRange.end(current)) {
+        int end = Math.max(LongTimeRange.end(current), LongTimeRange.end(next));
+        intervals.set(merged, LongTimeRange.pack(LongTimeRange.start(current), end));
+      } else {
+        intervals.set(++merged, next);
+      }
+    }
+    intervals.truncate(merged + 1);
+  }
+
+  /**
+   * Returns the union of two merged buffers as a new merged buffer. Both inputs are already
+   * sorted, so this is a single linear pass with no sorting.
+   */
+  static IntervalBuffer union(IntervalBuffer a, IntervalBuffer b) {
+    IntervalBuffer union = new IntervalBuffer(a.size() + b.size());
+    LongTimeRangeList out = union.intervals;
+    int i = 0;
+    int j = 0;
+    while (i < a.size() || j < b.size()) {
+      boolean takeA = j == b.size() || (i < a.size() && a.start(i) <= b.start(j));
+      long next = takeA ? a.intervals.get(i++) : b.intervals.get(j++);
+
+      int last = out.size() - 1;
+      if (last >= 0 && LongTimeRange.start(next) <= LongTimeRange.end(out.get(last))) {
+        int end = Math.max(LongTimeRange.end(out.get(last)), LongTimeRange.end(next));
+        out.set(last, LongTimeRange.pack(LongTimeRange.start(out.get(last)), end));
+      } else {
+        out.add(next);
+      }
+    }
+    return union;
+  }
+
+  /**
+   * Returns a buffer of intervals that are already packed, sorted and merged, such as those
+   * returned by {@link #toArray()}.
+   */
+  static IntervalBuffer ofMerged(long[] intervals) {
+    IntervalBuffer buffer = new IntervalBuffer(intervals.length);
+    for (long interval : intervals) {
+      buffer.intervals.add(interval);
+    }
+    return buffer;
+  }
+
+  /**
+   * Returns a copy of the intervals, packed with {@link LongTimeRange}.
+   */
+  long[] toArray() {
+    return intervals.toArray();
+  }
+
+  int size() {
+    return intervals.size();
+  }
+
+  int start(int index) {
+    return LongTimeRange.start(intervals.get(index));
+  }
+
+  int end(int index) {
+    return LongTimeRange.end(intervals.get(index));
+  }
+
+  /**
+   * Returns the gaps in the day between the merged intervals that are at least {@code duration}
+   * minutes long. {@link #merge()} must have been called first.
+   */
+  List<TimeRange> availableTime(long duration) {
+    List<TimeRange> availableTime = new ArrayList<>();
+    int freeFrom = TimeRange.START_OF_DAY;
+    for (int i = 0; i < intervals.size(); i++) {
+      int start = start(i);
+      if (start > freeFrom && start - freeFrom >= duration) {
+        availableTime.add(TimeRange.fromStartEnd(freeFrom, start, false));
+      }
+      freeFrom = Math.max(freeFrom, end(i));
+    }
+
+    if (freeFrom < TimeRange.END_OF_DAY && TimeRange.END_OF_DAY - freeFrom + 1 >= duration) {
+      availableTime.add(TimeRange.fromStartEnd(freeFrom, TimeRange.END_OF_DAY, true));
+    }
+    return availableTime;
+  }
+
+  /**
+   * Returns up to {@code limit} gaps between the merged intervals that fall within
+   * [{@code from}, {@code to}) and are at least {@code duration} minutes long, in ascending order.
+   * Gaps are clipped to the window. Unlike {@link #availableTime(long)}, the window can span any
+   * number of days. {@link #merge()} must have been called first.
+   */
+  List<TimeRange> freeTime(int from, int to, long duration, int limit) {
+    List<TimeRange> freeTime = new ArrayList<>();
+    int freeFrom = from;
+    for (int i = firstEndingAfter(from); i < intervals.size() && freeTime.size() < limit; i++) {
+      int start = start(i);
+      if (start >= to) {
+        break;
+      }
+      if (start > freeFrom && start - freeFrom >= duration) {
+        freeTime.add(TimeRange.fromStartEnd(freeFrom, start, false));
+      }
+      freeFrom = Math.max(freeFrom, end(i));
+    }
+
+    if (freeTime.size() < limit && freeFrom < to && to - freeFrom >= duration) {
+      freeTime.add(TimeRange.fromStartEnd(freeFrom, to, false));
+    }
+    return freeTime;
+  }
+
+  /**
+   * Returns the index of the first merged interval that ends after {@code minute}. Merged
+   * intervals are disjoint and sorted, so their ends are sorted too.
+   */
+  private int firstEndingAfter(int minute) {
+    int low = 0;
+    int high = intervals.size();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (end(middle) <= minute) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+}
@@ -0,0 +1,38 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Collection;
+
+/**
+ * A {@link CalendarShard} in this process, backed by an {@link EventIndex}.
+ */
+public final class LocalShard implements CalendarShard {
+  private final EventIndex index = new EventIndex();
+
+  @Override
+  public void addEvent(Event event) {
+    index.addEvent(event);
+  }
+
+  @Override
+  public long[] busyTime(Collection<String> attendees) {
+    return index.busyTime(attendees).toArray();
+  }
+
+  @Override
+  public void close() {}
+}
@@ -0,0 +1,102 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+/**
+ * Static helpers for time ranges packed into a single {@code long}, with the start in the high 32
+ * bits and the exclusive end in the low 32 bits. Packed ranges need no allocation, and because
+ * starts are never negative they sort by start time and then by end time as plain {@code long}s.
+ * They follow the same rules as {@link TimeRange}: a range with no duration contains nothing.
+ */
+public final class LongTimeRange {
+
+  private LongTimeRange() {
+    // Disallow instances.
+  }
+
+  /**
+   * Returns the range from {@code start} (inclusive) to {@code end} (exclusive).
+   */
+  public static long pack(int start, int end) {
+    return ((long) start << 32) | (end & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Returns the packed form of {@code range}.
+   */
+  public static long of(TimeRange range) {
+    return pack(range.start(), range.end());
+  }
+
+  /**
+   * Returns the start of the range in minutes.
+   */
+  public static int start(long range) {
+    return (int) (range >>> 32);
+  }
+
+  /**
+   * Returns the end of the range. This ending value is the closing exclusive bound.
+   */
+  public static int end(long range) {
+    return (int) range;
+  }
+
+  /**
+   * Returns the number of minutes between the start and end.
+   */
+  public static int duration(long range) {
+    return end(range) - start(range);
+  }
+
+  /**
+   * Checks if two ranges overlap, with the same meaning as {@link TimeRange#overlaps}.
+   */
+  public static boolean overlaps(long a, long b) {
+    return contains(a, start(b)) || contains(b, start(a));
+  }
+
+  /**
+   * Checks if {@code range} contains {@code point}, with the same meaning as
+   * {@link TimeRange#contains(int)}.
+   */
+  public static boolean contains(long range, int point) {
+    return point >= start(range) && point < end(range);
+  }
+
+  /**
+   * Checks if {@code range} completely contains {@code other}, with the same meaning as
+   * {@link TimeRange#contains(TimeRange)}.
+   */
+  public static boolean contains(long range, long other) {
+    if (duration(range) <= 0) {
+      return false;
+    }
+
+    if (duration(other) <= 0) {
+      return contains(range, start(other));
+    }
+
+    return start(other) >= start(range) && end(other) <= end(range);
+  }
+
+  /**
+   * Returns {@code range} as a {@link TimeRange}.
+   */
+  public static TimeRange toTimeRange(long range) {
+    return TimeRange.fromStartEnd(start(range), end(range), false);
+  }
+}
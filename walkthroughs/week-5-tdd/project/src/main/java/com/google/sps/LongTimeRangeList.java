@@ -0,0 +1,144 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A growable list of ranges packed with {@link LongTimeRange}, backed by a single {@code long[]}.
+ * Unlike a {@code List<TimeRange>}, adding a range allocates nothing, so the scheduler can work
+ * with ranges on its hot path and only build {@link TimeRange}s for the final answer.
+ */
+public final class LongTimeRangeList {
+  private static final int INITIAL_CAPACITY = 16;
+
+  private long[] ranges;
+  private int size;
+
+  /**
+   * Creates an empty list.
+   */
+  public LongTimeRangeList() {
+    this(INITIAL_CAPACITY);
+  }
+
+  /**
+   * Creates an empty list with room for {@code capacity} ranges before it has to grow.
+   */
+  public LongTimeRangeList(int capacity) {
+    ranges = new long[Math.max(capacity, 1)];
+  }
+
+  /**
+   * Adds a packed range to the end of the list.
+   */
+  public void add(long range) {
+    if (size == ranges.length) {
+      ranges = Arrays.copyOf(ranges, size * 2);
+    }
+    ranges[size++] = range;
+  }
+
+  /**
+   * Adds every range in {@code other} to the end of the list, in order.
+   */
+  public void addAll(LongTimeRangeList other) {
+    if (size + other.size > ranges.length) {
+      ranges = Arrays.copyOf(ranges, Math.max(size + other.size, ranges.length * 2));
+    }
+    System.arraycopy(other.ranges, 0, ranges, size, other.size);
+    size += other.size;
+  }
+
+  /**
+   * Adds the range [{@code start}, {@code end}) to the end of the list.
+   */
+  public void add(int start, int end) {
+    add(LongTimeRange.pack(start, end));
+  }
+
+  /**
+   * Returns the packed range at {@code index}.
+   */
+  public long get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    return ranges[index];
+  }
+
+  /**
+   * Replaces the packed range at {@code index}.
+   */
+  public void set(int index, long range) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    ranges[index] = range;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Drops every range from {@code newSize} onwards.
+   */
+  public void truncate(int newSize) {
+    if (newSize < 0 || newSize > size) {
+      throw new IndexOutOfBoundsException("Size: " + newSize);
+    }
+    size = newSize;
+  }
+
+  /**
+   * Removes every range from the list, keeping its capacity.
+   */
+  public void clear() {
+    size = 0;
+  }
+
+  /**
+   * Sorts the ranges by start time, then by end time.
+   */
+  public void sort() {
+    Arrays.sort(ranges, 0, size);
+  }
+
+  /**
+   * Returns a copy of the packed ranges.
+   */
+  public long[] toArray() {
+    return Arrays.copyOf(ranges, size);
+  }
+
+  /**
+   * Returns the ranges as a new list of {@link TimeRange}s.
+   */
+  public List<TimeRange> toTimeRanges() {
+    List<TimeRange> timeRanges = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      timeRanges.add(LongTimeRange.toTimeRange(ranges[i]));
+    }
+    return timeRanges;
+  }
+}
@@ -0,0 +1,274 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A read-only calendar stored in a compact binary file and read through a memory map. Opening a
+ * store only maps the file, so it is fast no matter how many events there are, and queries read
+ * busy time straight out of the mapped bytes without creating any {@link Event}s.
+ *
+ * <p>The file holds, in order and all big-endian:
+ *
+ * <ul>
+ *   <li>A 16 byte header: the magic number, the format version, the number of attendees and the
+ *       number of intervals, each an int.
+ *   <li>The attendee table, with 16 bytes per attendee, sorted by the UTF-8 bytes of their names:
+ *       where the name starts in the name section and its length in bytes, then the index of the
+ *       attendee's first interval and how many intervals they have.
+ *   <li>The intervals, 8 bytes each, packed with {@link LongTimeRange}. Each attendee's intervals
+ *       are their busy time, already sorted and merged.
+ *   <li>The name section, every attendee's name encoded in UTF-8.
+ * </ul>
+ *
+ * <p>A single map is limited to 2GB, so a store can hold at most about 250 million intervals.
+ */
+public final class MappedEventStore {
+  private static final int MAGIC = 0x53505345;
+  private static final int FORMAT_VERSION = 1;
+  private static final int HEADER_BYTES = 16;
+  private static final int ATTENDEE_BYTES = 16;
+  private static final int INTERVAL_BYTES = 8;
+
+  private final ByteBuffer buffer;
+  private final int attendeeCount;
+  private final int intervalsOffset;
+
+  private MappedEventStore(ByteBuffer buffer) throws IOException {
+    if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+      throw new IOException("Not an event store");
+    }
+
+    if (buffer.getInt(4) != FORMAT_VERSION) {
+      throw new IOException("Unsupported event store version: " + buffer.getInt(4));
+    }
+
+    int attendeeCount = buffer.getInt(8);
+    int intervalCount = buffer.getInt(12);
+    if (attendeeCount < 0 || intervalCount < 0
+        || sectionsEnd(attendeeCount, intervalCount) > buffer.capacity()) {
+      throw new IOException("Event store is truncated or corrupt");
+    }
+
+    this.buffer = buffer;
+    this.attendeeCount = attendeeCount;
+    this.intervalsOffset = HEADER_BYTES + attendeeCount * ATTENDEE_BYTES;
+  }
+
+  /**
+   * Maps the store at {@code path} into memory.
+   *
+   * @throws IOException if the file can't be read or isn't an event store.
+   */
+  public static MappedEventStore open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("Event store is larger than a map can hold: " + channel.size());
+      }
+      // The mapping stays valid after the channel is closed.
+      return new MappedEventStore(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * Writes the busy time of every attendee of {@code events} to a new store at {@code path},
+   * replacing any file that is already there.
+   *
+   * @throws IOException if the file can't be written, or the store would be too big to map.
+   */
+  public static void write(Collection<Event> events, Path path) throws IOException {
+    Map<String, IntervalBuffer> busyTimeByAttendee = new HashMap<>();
+    for (Event event : events) {
+      for (String attendee : event.getAttendees()) {
+        busyTimeByAttendee.computeIfAbsent(attendee, key -> new IntervalBuffer())
+            .add(event.getWhen());
+      }
+    }
+
+    List<byte[]> names = new ArrayList<>();
+    for (String attendee : busyTimeByAttendee.keySet()) {
+      names.add(attendee.getBytes(StandardCharsets.UTF_8));
+    }
+    names.sort(MappedEventStore::compareBytes);
+
+    List<IntervalBuffer> busyTimes = new ArrayList<>(names.size());
+    long intervalCount = 0;
+    long nameBytes = 0;
+    for (byte[] name : names) {
+      IntervalBuffer busyTime =
+          busyTimeByAttendee.get(new String(name, StandardCharsets.UTF_8));
+      busyTime.merge();
+      busyTimes.add(busyTime);
+      intervalCount += busyTime.size();
+      nameBytes += name.length;
+    }
+
+    // Every offset in the file is an int, so check the size before writing anything.
+    long storeBytes = sectionsEnd(names.size(), intervalCount) + nameBytes;
+    if (storeBytes > Integer.MAX_VALUE) {
+      throw new IOException("Event store would be larger than a map can hold: " + storeBytes);
+    }
+
+    try (DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      out.writeInt(names.size());
+      out.writeInt((int) intervalCount);
+
+      int namesOffset = (int) sectionsEnd(names.size(), intervalCount);
+      int firstInterval = 0;
+      for (int i = 0; i < names.size(); i++) {
+        out.writeInt(namesOffset);
+        out.writeInt(names.get(i).length);
+        out.writeInt(firstInterval);
+        out.writeInt(busyTimes.get(i).size());
+        namesOffset += names.get(i).length;
+        firstInterval += busyTimes.get(i).size();
+      }
+
+      for (IntervalBuffer busyTime : busyTimes) {
+        for (long interval : busyTime.toArray()) {
+          out.writeLong(interval);
+        }
+      }
+
+      for (byte[] name : names) {
+        out.write(name);
+      }
+    }
+  }
+
+  /**
+   * Returns the number of attendees in the store.
+   */
+  public int attendeeCount() {
+    return attendeeCount;
+  }
+
+  /**
+   * Returns the merged ranges, in ascending order, during which {@code attendee} is busy.
+   */
+  public List<TimeRange> getBusyTime(String attendee) {
+    List<TimeRange> ranges = new ArrayList<>();
+    int entry = find(attendee);
+    if (entry >= 0) {
+      for (int i = 0; i < intervalCount(entry); i++) {
+        ranges.add(LongTimeRange.toTimeRange(interval(entry, i)));
+      }
+    }
+    return ranges;
+  }
+
+  /**
+   * Returns the union of the busy time of all of {@code attendees}, merged.
+   */
+  IntervalBuffer busyTime(Collection<String> attendees) {
+    IntervalBuffer busyTime = new IntervalBuffer();
+    for (String attendee : attendees) {
+      int entry = find(attendee);
+      if (entry < 0) {
+        continue;
+      }
+      for (int i = 0; i < intervalCount(entry); i++) {
+        long interval = interval(entry, i);
+        busyTime.add(LongTimeRange.start(interval), LongTimeRange.end(interval));
+      }
+    }
+    busyTime.merge();
+    return busyTime;
+  }
+
+  /**
+   * Returns the position of {@code attendee} in the attendee table, or -1 if they have no events.
+   */
+  private int find(String attendee) {
+    byte[] name = attendee.getBytes(StandardCharsets.UTF_8);
+    int low = 0;
+    int high = attendeeCount - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int comparison = compareName(middle, name);
+      if (comparison < 0) {
+        low = middle + 1;
+      } else if (comparison > 0) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Compares the name of the attendee at {@code entry} with {@code name}, byte by byte.
+   */
+  private int compareName(int entry, byte[] name) {
+    int offset = buffer.getInt(entryOffset(entry));
+    int length = buffer.getInt(entryOffset(entry) + 4);
+    for (int i = 0; i < Math.min(length, name.length); i++) {
+      int comparison = Integer.compare(buffer.get(offset + i) & 0xFF, name[i] & 0xFF);
+      if (comparison != 0) {
+        return comparison;
+      }
+    }
+    return Integer.compare(length, name.length);
+  }
+
+  private int intervalCount(int entry) {
+    return buffer.getInt(entryOffset(entry) + 12);
+  }
+
+  private long interval(int entry, int index) {
+    int first = buffer.getInt(entryOffset(entry) + 8);
+    return buffer.getLong(intervalsOffset + (first + index) * INTERVAL_BYTES);
+  }
+
+  /**
+   * Returns where the name section starts, which is the end of the attendee table and intervals.
+   */
+  private static long sectionsEnd(long attendeeCount, long intervalCount) {
+    return HEADER_BYTES + attendeeCount * ATTENDEE_BYTES + intervalCount * INTERVAL_BYTES;
+  }
+
+  private static int entryOffset(int entry) {
+    return HEADER_BYTES + entry * ATTENDEE_BYTES;
+  }
+
+  private static int compareBytes(byte[] a, byte[] b) {
+    for (int i = 0; i < Math.min(a.length, b.length); i++) {
+      int comparison = Integer.compare(a[i] & 0xFF, b[i] & 0xFF);
+      if (comparison != 0) {
+        return comparison;
+      }
+    }
+    return Integer.compare(a.length, b.length);
+  }
+}
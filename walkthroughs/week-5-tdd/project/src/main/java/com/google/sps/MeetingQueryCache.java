@@ -0,0 +1,152 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * A bounded, least-recently-used cache in front of {@link FindMeetingQuery} for an
+ * {@link EventIndex}. What is cached is the merged busy time of each group of attendees, not the
+ * final answer, so asking again for the same people with a different duration only has to find
+ * the gaps. Entries are keyed on the normalized group of attendees and the index's version, and
+ * every entry is dropped as soon as the index changes.
+ */
+public final class MeetingQueryCache {
+  private final EventIndex index;
+  private final FindMeetingQuery query = new FindMeetingQuery();
+  private final Map<GroupKey, IntervalBuffer> busyTimeByGroup;
+
+  // The index version that the cached entries were computed at. Guarded by {@code this}.
+  private long cachedVersion;
+
+  private long hitCount;
+  private long missCount;
+
+  /**
+   * Creates a cache.
+   *
+   * @param index The index to read busy time from. Must be non-null.
+   * @param maxEntries The most groups of attendees to keep busy time for. Must be positive.
+   */
+  public MeetingQueryCache(EventIndex index, int maxEntries) {
+    if (index == null) {
+      throw new IllegalArgumentException("index cannot be null");
+    }
+
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("maxEntries must be positive");
+    }
+
+    this.index = index;
+    this.cachedVersion = index.version();
+    this.busyTimeByGroup = new LinkedHashMap<GroupKey, IntervalBuffer>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<GroupKey, IntervalBuffer> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  /**
+   * Returns the same answer as {@link FindMeetingQuery#query(EventIndex, MeetingRequest)}, reusing
+   * cached busy time where it can.
+   */
+  public Collection<TimeRange> query(MeetingRequest request) {
+    return query.query(request,
+        attendees -> busyTime(attendees).availableTime(request.getDuration()));
+  }
+
+  /**
+   * Returns how many groups of attendees currently have cached busy time.
+   */
+  public synchronized int size() {
+    return busyTimeByGroup.size();
+  }
+
+  /**
+   * Returns how many lookups were answered from the cache.
+   */
+  public synchronized long hitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Returns how many lookups had to read the index.
+   */
+  public synchronized long missCount() {
+    return missCount;
+  }
+
+  private IntervalBuffer busyTime(Collection<String> attendees) {
+    // Names a client asks about are never interned, so requests can't grow the registry.
+    String[] names = new TreeSet<>(attendees).toArray(new String[0]);
+    GroupKey key = new GroupKey(names, index.version());
+    synchronized (this) {
+      if (key.version > cachedVersion) {
+        // The events changed, so nothing that is cached can be used any more. A key from a thread
+        // that read an older version just misses, and must not roll the version back.
+        busyTimeByGroup.clear();
+        cachedVersion = key.version;
+      }
+
+      IntervalBuffer busyTime = busyTimeByGroup.get(key);
+      if (busyTime != null) {
+        hitCount++;
+        return busyTime;
+      }
+      missCount++;
+    }
+
+    // Read the index outside of the lock so that misses for different groups don't wait on each
+    // other. The result is at least as new as the version in the key.
+    IntervalBuffer busyTime = index.busyTime(attendees);
+    synchronized (this) {
+      if (key.version == cachedVersion) {
+        busyTimeByGroup.put(key, busyTime);
+      }
+    }
+    return busyTime;
+  }
+
+  /**
+   * A group of attendees, as sorted and distinct names, at one version of the index.
+   */
+  private static final class GroupKey {
+    final String[] attendees;
+    final long version;
+
+    GroupKey(String[] attendees, long version) {
+      this.attendees = attendees;
+      this.version = version;
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(attendees) * 31 + Long.hashCode(version);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof GroupKey
+          && version == ((GroupKey) other).version
+          && Arrays.equals(attendees, ((GroupKey) other).attendees);
+    }
+  }
+}
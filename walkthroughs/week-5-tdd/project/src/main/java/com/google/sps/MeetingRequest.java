@@ -30,6 +30,11 @@ public final class MeetingRequest {
   // The duration of the meeting in minutes.
   private final long duration;
 
+  // Used by Gson so that fields missing from the JSON keep their empty defaults.
+  private MeetingRequest() {
+    this(Collections.emptyList(), 0);
+  }
+
   public MeetingRequest(Collection<String> attendees, long duration) {
     this.duration = duration;
     this.attendees.addAll(attendees);
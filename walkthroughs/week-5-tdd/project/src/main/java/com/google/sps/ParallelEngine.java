@@ -0,0 +1,118 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * An {@link AvailabilityEngine} that computes busy time on a {@link ForkJoinPool}. The events are
+ * split into chunks, each chunk collects and merges the busy intervals of the requested attendees,
+ * and the partial results are combined pairwise with a linear merge. Below {@code threshold}
+ * events it stays on the calling thread, since forking costs more than it saves on small
+ * calendars.
+ *
+ * <p>Merged busy time is a canonical form, so the answer is the same however the work is split
+ * and identical to the sequential engines.
+ */
+public final class ParallelEngine implements AvailabilityEngine {
+  /**
+   * The number of events below which the work is not split any further.
+   */
+  public static final int DEFAULT_THRESHOLD = 4096;
+
+  private final ForkJoinPool pool;
+  private final int threshold;
+
+  /**
+   * Creates an engine that runs on the common pool with the default threshold.
+   */
+  public ParallelEngine() {
+    this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+  }
+
+  /**
+   * Creates an engine.
+   *
+   * @param pool The pool to run on. Must be non-null.
+   * @param threshold The number of events below which the work is not split. Must be positive.
+   */
+  public ParallelEngine(ForkJoinPool pool, int threshold) {
+    if (pool == null) {
+      throw new IllegalArgumentException("pool cannot be null");
+    }
+
+    if (threshold <= 0) {
+      throw new IllegalArgumentException("threshold must be positive");
+    }
+
+    this.pool = pool;
+    this.threshold = threshold;
+  }
+
+  @Override
+  public List<TimeRange> findAvailableTime(
+      Collection<Event> events, Collection<String> attendees, long duration) {
+    BitSet attendeeIds = AttendeeRegistry.global().findAll(attendees);
+    Event[] eventArray = events.toArray(new Event[0]);
+
+    BusyTimeTask task = new BusyTimeTask(eventArray, 0, eventArray.length, attendeeIds);
+    boolean sequential = attendeeIds.isEmpty() || eventArray.length < threshold;
+    IntervalBuffer busyTime = sequential ? task.compute() : pool.invoke(task);
+    return busyTime.availableTime(duration);
+  }
+
+  /**
+   * Computes the merged busy time of the attendees over {@code events[from, to)}.
+   */
+  private final class BusyTimeTask extends RecursiveTask<IntervalBuffer> {
+    private final Event[] events;
+    private final int from;
+    private final int to;
+    private final BitSet attendees;
+
+    BusyTimeTask(Event[] events, int from, int to, BitSet attendees) {
+      this.events = events;
+      this.from = from;
+      this.to = to;
+      this.attendees = attendees;
+    }
+
+    @Override
+    protected IntervalBuffer compute() {
+      if (to - from <= threshold || attendees.isEmpty()) {
+        IntervalBuffer busyTime = new IntervalBuffer();
+        for (int i = from; i < to; i++) {
+          if (SweepLineEngine.isAttending(events[i], attendees)) {
+            busyTime.add(events[i].getWhen());
+          }
+        }
+        busyTime.merge();
+        return busyTime;
+      }
+
+      int middle = (from + to) >>> 1;
+      BusyTimeTask left = new BusyTimeTask(events, from, middle, attendees);
+      BusyTimeTask right = new BusyTimeTask(events, middle, to, attendees);
+      left.fork();
+      IntervalBuffer rightBusyTime = right.compute();
+      return IntervalBuffer.union(left.join(), rightBusyTime);
+    }
+  }
+}
@@ -0,0 +1,172 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link SchedulerMetrics} that keeps a latency histogram for every phase and running totals of
+ * every count, all safe to update from many threads at once.
+ */
+public final class RecordingSchedulerMetrics implements SchedulerMetrics {
+  private final Map<Phase, Histogram> histograms = new EnumMap<>(Phase.class);
+  private final LongAdder eventsScanned = new LongAdder();
+  private final LongAdder intervalsMerged = new LongAdder();
+  private final LongAdder optionalRequests = new LongAdder();
+  private final LongAdder optionalFallbacks = new LongAdder();
+
+  public RecordingSchedulerMetrics() {
+    for (Phase phase : Phase.values()) {
+      histograms.put(phase, new Histogram());
+    }
+  }
+
+  @Override
+  public void recordPhase(Phase phase, long nanos) {
+    histograms.get(phase).record(nanos);
+  }
+
+  @Override
+  public void recordEventsScanned(long count) {
+    eventsScanned.add(count);
+  }
+
+  @Override
+  public void recordIntervalsMerged(long count) {
+    intervalsMerged.add(count);
+  }
+
+  @Override
+  public void recordOptionalAttendees(boolean fellBack) {
+    optionalRequests.increment();
+    if (fellBack) {
+      optionalFallbacks.increment();
+    }
+  }
+
+  /**
+   * Returns how many times {@code phase} has been recorded.
+   */
+  public long count(Phase phase) {
+    return histograms.get(phase).count.sum();
+  }
+
+  /**
+   * Returns an upper bound, in nanoseconds, on the {@code quantile} of the times recorded for
+   * {@code phase}. The bound is within a factor of two of the true value.
+   */
+  public long quantileNanos(Phase phase, double quantile) {
+    return histograms.get(phase).quantile(quantile);
+  }
+
+  /**
+   * Returns how many events have been looked at to find busy time.
+   */
+  public long eventsScanned() {
+    return eventsScanned.sum();
+  }
+
+  /**
+   * Returns how many busy intervals have been merged.
+   */
+  public long intervalsMerged() {
+    return intervalsMerged.sum();
+  }
+
+  /**
+   * Returns the fraction of requests with optional attendees that fell back to the mandatory
+   * attendees alone, or 0 if there have been none.
+   */
+  public double optionalFallbackRate() {
+    long requests = optionalRequests.sum();
+    return (requests == 0) ? 0 : (double) optionalFallbacks.sum() / requests;
+  }
+
+  /**
+   * Returns everything recorded so far as nested maps, ready to be converted to JSON. Times are in
+   * microseconds.
+   */
+  public Map<String, Object> snapshot() {
+    Map<String, Object> phases = new LinkedHashMap<>();
+    for (Phase phase : Phase.values()) {
+      Histogram histogram = histograms.get(phase);
+      long count = histogram.count.sum();
+      Map<String, Object> summary = new LinkedHashMap<>();
+      summary.put("count", count);
+      summary.put("meanMicros", (count == 0) ? 0 : histogram.totalNanos.sum() / 1000.0 / count);
+      summary.put("p50Micros", histogram.quantile(0.5) / 1000.0);
+      summary.put("p99Micros", histogram.quantile(0.99) / 1000.0);
+      summary.put("maxMicros", histogram.maxNanos.get() / 1000.0);
+      phases.put(phase.name().toLowerCase(), summary);
+    }
+
+    Map<String, Object> snapshot = new LinkedHashMap<>();
+    snapshot.put("phases", phases);
+    snapshot.put("eventsScanned", eventsScanned());
+    snapshot.put("intervalsMerged", intervalsMerged());
+    snapshot.put("optionalRequests", optionalRequests.sum());
+    snapshot.put("optionalFallbacks", optionalFallbacks.sum());
+    snapshot.put("optionalFallbackRate", optionalFallbackRate());
+    return snapshot;
+  }
+
+  /**
+   * Counts times in buckets that double in width, so bucket i holds times below 2^i nanoseconds.
+   */
+  private static final class Histogram {
+    final AtomicLongArray buckets = new AtomicLongArray(Long.SIZE);
+    final LongAdder count = new LongAdder();
+    final LongAdder totalNanos = new LongAdder();
+    final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    void record(long nanos) {
+      nanos = Math.max(0, nanos);
+      buckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(nanos));
+      count.increment();
+      totalNanos.add(nanos);
+      maxNanos.accumulate(nanos);
+    }
+
+    long quantile(double quantile) {
+      long total = 0;
+      for (int i = 0; i < buckets.length(); i++) {
+        total += buckets.get(i);
+      }
+      if (total == 0) {
+        return 0;
+      }
+
+      long rank = (long) Math.ceil(quantile * total);
+      long seen = 0;
+      for (int i = 0; i < buckets.length(); i++) {
+        seen += buckets.get(i);
+        if (seen >= rank && buckets.get(i) > 0) {
+          return upperBound(i);
+        }
+      }
+      return upperBound(buckets.length() - 1);
+    }
+
+    private static long upperBound(int bucket) {
+      return (bucket >= Long.SIZE - 1) ? Long.MAX_VALUE : (1L << bucket);
+    }
+  }
+}
@@ -0,0 +1,90 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Collection;
+
+/**
+ * A {@link CalendarShard} in a {@link ShardServer}, usually in another process on the same
+ * machine. Calls are sent one at a time over a single connection.
+ */
+public final class RemoteShard implements CalendarShard {
+  private final Socket socket;
+  private final DataInputStream in;
+  private final DataOutputStream out;
+
+  /**
+   * Connects to the shard server listening on {@code port} of this machine.
+   */
+  public RemoteShard(int port) throws IOException {
+    this.socket = new Socket(InetAddress.getLoopbackAddress(), port);
+    socket.setTcpNoDelay(true);
+    this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+    this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+  }
+
+  @Override
+  public synchronized void addEvent(Event event) {
+    try {
+      out.writeByte(ShardServer.ADD_EVENT);
+      out.writeUTF(event.getTitle());
+      out.writeInt(event.getWhen().start());
+      out.writeInt(event.getWhen().end());
+      writeStrings(event.getAttendees());
+      out.flush();
+      in.readByte();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public synchronized long[] busyTime(Collection<String> attendees) {
+    try {
+      out.writeByte(ShardServer.BUSY_TIME);
+      writeStrings(attendees);
+      out.flush();
+
+      long[] intervals = new long[in.readInt()];
+      for (int i = 0; i < intervals.length; i++) {
+        intervals[i] = in.readLong();
+      }
+      return intervals;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    socket.close();
+  }
+
+  private void writeStrings(Collection<String> strings) throws IOException {
+    out.writeInt(strings.size());
+    for (String string : strings) {
+      out.writeUTF(string);
+    }
+  }
+}
@@ -0,0 +1,87 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Something other than a person that a meeting needs, like a room or a projector. A resource takes
+ * part in events as an attendee under its name, so its busy time is indexed like anyone else's.
+ */
+public final class Resource {
+  private final String name;
+  private final String type;
+  private final int capacity;
+  private final Set<String> attributes;
+
+  /**
+   * Creates a resource.
+   *
+   * @param name The name the resource attends events under. Must be non-null.
+   * @param type What kind of resource it is, like "room". Must be non-null.
+   * @param capacity How many people it serves. Must not be negative.
+   * @param attributes What it offers, like "whiteboard". Must be non-null.
+   */
+  public Resource(String name, String type, int capacity, Collection<String> attributes) {
+    if (name == null) {
+      throw new IllegalArgumentException("name cannot be null");
+    }
+
+    if (type == null) {
+      throw new IllegalArgumentException("type cannot be null");
+    }
+
+    if (capacity < 0) {
+      throw new IllegalArgumentException("capacity cannot be negative");
+    }
+
+    if (attributes == null) {
+      throw new IllegalArgumentException("attributes cannot be null. Use empty array instead.");
+    }
+
+    this.name = name;
+    this.type = type;
+    this.capacity = capacity;
+    this.attributes = Collections.unmodifiableSet(new HashSet<>(attributes));
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Returns a read-only set of what the resource offers.
+   */
+  public Set<String> getAttributes() {
+    return attributes;
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
@@ -0,0 +1,67 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * One resource that a meeting needs: any resource of the given type with at least the given
+ * capacity and all of the given attributes will do.
+ */
+public final class ResourceRequirement {
+  private final String type;
+  private final int minCapacity;
+  private final Set<String> attributes;
+
+  /**
+   * Creates a requirement.
+   *
+   * @param type The type of resource needed. Must be non-null.
+   * @param minCapacity The smallest capacity that will do.
+   * @param attributes Everything the resource must offer. Must be non-null.
+   */
+  public ResourceRequirement(String type, int minCapacity, Collection<String> attributes) {
+    if (type == null) {
+      throw new IllegalArgumentException("type cannot be null");
+    }
+
+    if (attributes == null) {
+      throw new IllegalArgumentException("attributes cannot be null. Use empty array instead.");
+    }
+
+    this.type = type;
+    this.minCapacity = minCapacity;
+    this.attributes = Collections.unmodifiableSet(new HashSet<>(attributes));
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  public int getMinCapacity() {
+    return minCapacity;
+  }
+
+  /**
+   * Returns a read-only set of everything the resource must offer.
+   */
+  public Set<String> getAttributes() {
+    return attributes;
+  }
+}
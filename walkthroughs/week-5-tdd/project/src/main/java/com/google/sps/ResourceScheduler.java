@@ -0,0 +1,278 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds times when the people in a meeting are free and, for each {@link ResourceRequirement}, a
+ * suitable resource is free for the whole meeting.
+ *
+ * <p>Resources are indexed by type and sorted by capacity, so a requirement only looks at
+ * resources of its own type that are big enough. Their busy time comes from the same
+ * {@link EventIndex} as the people's, already merged. Each free range is then turned into the
+ * window of times the meeting could start in it, and one sweep over all of those windows finds
+ * where the people's windows overlap a window of at least one resource per requirement. The
+ * smallest resource that fits is picked, so big rooms are left for big meetings.
+ */
+public final class ResourceScheduler {
+  // Smallest first, then by name so that the choice between equal resources is stable.
+  private static final Comparator<Resource> BY_CAPACITY =
+      Comparator.comparingInt(Resource::getCapacity).thenComparing(Resource::getName);
+
+  /**
+   * A range of time for the meeting and the resources that are free for all of it.
+   */
+  public static final class Booking {
+    private final TimeRange when;
+    private final List<Resource> resources;
+
+    Booking(TimeRange when, List<Resource> resources) {
+      this.when = when;
+      this.resources = Collections.unmodifiableList(resources);
+    }
+
+    /**
+     * Returns the range within which the meeting can be placed, at least as long as the meeting.
+     */
+    public TimeRange getWhen() {
+      return when;
+    }
+
+    /**
+     * Returns one resource for each requirement, in the same order as the requirements.
+     */
+    public List<Resource> getResources() {
+      return resources;
+    }
+
+    @Override
+    public String toString() {
+      return when + " " + resources;
+    }
+  }
+
+  private final EventIndex index;
+  private final FindMeetingQuery query = new FindMeetingQuery();
+
+  // The resources of each type, smallest first.
+  private final Map<String, Resource[]> resourcesByType = new HashMap<>();
+
+  /**
+   * Creates a scheduler.
+   *
+   * @param index The events of people and resources alike. Must be non-null.
+   * @param resources Every resource that can be booked. Names must be distinct.
+   */
+  public ResourceScheduler(EventIndex index, Collection<Resource> resources) {
+    if (index == null) {
+      throw new IllegalArgumentException("index cannot be null");
+    }
+
+    Set<String> names = new HashSet<>();
+    Map<String, List<Resource>> byType = new HashMap<>();
+    for (Resource resource : resources) {
+      if (!names.add(resource.getName())) {
+        throw new IllegalArgumentException("Duplicate resource: " + resource.getName());
+      }
+      byType.computeIfAbsent(resource.getType(), key -> new ArrayList<>()).add(resource);
+    }
+
+    this.index = index;
+    for (Map.Entry<String, List<Resource>> entry : byType.entrySet()) {
+      Resource[] sorted = entry.getValue().toArray(new Resource[0]);
+      Arrays.sort(sorted, BY_CAPACITY);
+      resourcesByType.put(entry.getKey(), sorted);
+    }
+  }
+
+  /**
+   * Returns every range in which the meeting can be held with one resource for each of
+   * {@code requirements}, in order of start time. The people are treated as in
+   * {@link FindMeetingQuery#query}, optional attendees included. Where the best resources change
+   * part way through a free range, the range is split.
+   */
+  public List<Booking> query(MeetingRequest request, List<ResourceRequirement> requirements) {
+    List<Booking> bookings = new ArrayList<>();
+    long duration = request.getDuration();
+    if (duration > TimeRange.WHOLE_DAY.duration()) {
+      return bookings;
+    }
+
+    Resource[][] candidates = new Resource[requirements.size()][];
+    int sourceCount = 1;
+    for (int requirement = 0; requirement < requirements.size(); requirement++) {
+      candidates[requirement] = candidates(requirements.get(requirement));
+      sourceCount += candidates[requirement].length;
+    }
+
+    // Every source of free time gets a number: 0 for the people, then each candidate of each
+    // requirement in turn.
+    List<Collection<TimeRange>> freeTimes = new ArrayList<>(sourceCount);
+    int[] sourceRequirements = new int[sourceCount];
+    int[] sourceCandidates = new int[sourceCount];
+    freeTimes.add(query.query(index, request));
+    for (int requirement = 0; requirement < requirements.size(); requirement++) {
+      for (int candidate = 0; candidate < candidates[requirement].length; candidate++) {
+        sourceRequirements[freeTimes.size()] = requirement;
+        sourceCandidates[freeTimes.size()] = candidate;
+        freeTimes.add(index.availableTime(
+            Collections.singletonList(candidates[requirement][candidate].getName()), duration));
+      }
+    }
+    long[] boundaries = windowBoundaries(freeTimes, duration);
+
+    // Which candidates of each requirement are free, by their position among the candidates.
+    BitSet[] free = new BitSet[requirements.size()];
+    for (int requirement = 0; requirement < requirements.size(); requirement++) {
+      free[requirement] = new BitSet(candidates[requirement].length);
+    }
+
+    boolean peopleFree = false;
+    int from = -1;
+    int[] chosen = null;
+    for (int i = 0; i < boundaries.length; ) {
+      int time = boundaryTime(boundaries[i]);
+      // Apply every boundary at this time before looking at what is free after it.
+      for (; i < boundaries.length && boundaryTime(boundaries[i]) == time; i++) {
+        int source = boundarySource(boundaries[i]);
+        boolean starts = boundaryStarts(boundaries[i]);
+        if (source == 0) {
+          peopleFree = starts;
+          continue;
+        }
+
+        free[sourceRequirements[source]].set(sourceCandidates[source], starts);
+      }
+
+      int[] choice = peopleFree ? choose(free) : null;
+      if (!Arrays.equals(choice, chosen)) {
+        if (chosen != null) {
+          bookings.add(booking(from, time, duration, candidates, chosen));
+        }
+        from = time;
+        chosen = choice;
+      }
+    }
+    return bookings;
+  }
+
+  /**
+   * Returns the resources that meet {@code requirement}, smallest first.
+   */
+  private Resource[] candidates(ResourceRequirement requirement) {
+    Resource[] resources = resourcesByType.get(requirement.getType());
+    if (resources == null) {
+      return new Resource[0];
+    }
+
+    // Binary search for the first big enough resource, so smaller ones are never looked at.
+    int first = 0;
+    int last = resources.length;
+    while (first < last) {
+      int middle = (first + last) >>> 1;
+      if (resources[middle].getCapacity() < requirement.getMinCapacity()) {
+        first = middle + 1;
+      } else {
+        last = middle;
+      }
+    }
+
+    List<Resource> suitable = new ArrayList<>();
+    for (int i = first; i < resources.length; i++) {
+      if (resources[i].getAttributes().containsAll(requirement.getAttributes())) {
+        suitable.add(resources[i]);
+      }
+    }
+    return suitable.toArray(new Resource[0]);
+  }
+
+  /**
+   * Returns where the windows of start times that each of {@code freeTimes} leaves for the meeting
+   * begin and end, sorted by time. A free range [start, end) lets the meeting start anywhere in
+   * [start, end - duration]. Each boundary is packed into a long as the time in the high 32 bits,
+   * then which of {@code freeTimes} it came from, then 1 if a window begins there.
+   */
+  private static long[] windowBoundaries(List<Collection<TimeRange>> freeTimes, long duration) {
+    int count = 0;
+    for (Collection<TimeRange> freeTime : freeTimes) {
+      count += freeTime.size();
+    }
+
+    long[] boundaries = new long[count * 2];
+    int size = 0;
+    for (int source = 0; source < freeTimes.size(); source++) {
+      for (TimeRange range : freeTimes.get(source)) {
+        long windowEnd = range.end() - duration + 1;
+        boundaries[size++] = ((long) range.start() << 32) | ((long) source << 1) | 1;
+        boundaries[size++] = (windowEnd << 32) | ((long) source << 1);
+      }
+    }
+    Arrays.sort(boundaries);
+    return boundaries;
+  }
+
+  private static int boundaryTime(long boundary) {
+    return (int) (boundary >>> 32);
+  }
+
+  private static int boundarySource(long boundary) {
+    return ((int) boundary) >>> 1;
+  }
+
+  private static boolean boundaryStarts(long boundary) {
+    return (boundary & 1) == 1;
+  }
+
+  /**
+   * Returns the position of the smallest free candidate of each requirement, or null if any has
+   * none free.
+   */
+  private static int[] choose(BitSet[] free) {
+    int[] choice = new int[free.length];
+    for (int requirement = 0; requirement < free.length; requirement++) {
+      choice[requirement] = free[requirement].nextSetBit(0);
+      if (choice[requirement] < 0) {
+        return null;
+      }
+    }
+    return choice;
+  }
+
+  /**
+   * Returns the booking for meetings that can start anywhere in [{@code from}, {@code to}) with
+   * the {@code chosen} candidates.
+   */
+  private static Booking booking(
+      int from, int to, long duration, Resource[][] candidates, int[] chosen) {
+    List<Resource> resources = new ArrayList<>(chosen.length);
+    for (int requirement = 0; requirement < chosen.length; requirement++) {
+      resources.add(candidates[requirement][chosen[requirement]]);
+    }
+    return new Booking(
+        TimeRange.fromStartEnd(from, (int) (to - 1 + duration), false), resources);
+  }
+}
@@ -0,0 +1,79 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+/**
+ * Receives timings and counts from {@link FindMeetingQuery} as it answers requests. Calls come
+ * from whatever threads run queries, so implementations must be thread-safe and should be cheap.
+ */
+public interface SchedulerMetrics {
+  /**
+   * The parts of answering a request that are timed.
+   */
+  enum Phase {
+    /** The whole of a call to {@code query}. */
+    QUERY,
+    /** Finding the busy intervals of a group of attendees. */
+    BUSY_TIME,
+    /** Sorting and merging busy intervals into disjoint ranges. */
+    MERGE,
+    /** Finding the gaps between busy ranges that are long enough for the meeting. */
+    GAPS,
+    /**
+     * Checking whether the optional attendees can come too, on top of the mandatory ones. This
+     * includes finding the busy time and gaps of everyone together.
+     */
+    OPTIONALS,
+  }
+
+  /**
+   * Discards everything. The default for queries that aren't given any metrics.
+   */
+  SchedulerMetrics NOOP = new SchedulerMetrics() {
+    @Override
+    public void recordPhase(Phase phase, long nanos) {}
+
+    @Override
+    public void recordEventsScanned(long count) {}
+
+    @Override
+    public void recordIntervalsMerged(long count) {}
+
+    @Override
+    public void recordOptionalAttendees(boolean fellBack) {}
+  };
+
+  /**
+   * Records that {@code phase} took {@code nanos} nanoseconds.
+   */
+  void recordPhase(Phase phase, long nanos);
+
+  /**
+   * Records that {@code count} events were looked at to find busy time.
+   */
+  void recordEventsScanned(long count);
+
+  /**
+   * Records that {@code count} busy intervals were merged.
+   */
+  void recordIntervalsMerged(long count);
+
+  /**
+   * Records a request with optional attendees. {@code fellBack} is true if there was no time that
+   * suited the optional attendees as well, so only the mandatory attendees were considered.
+   */
+  void recordOptionalAttendees(boolean fellBack);
+}
@@ -0,0 +1,137 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serves one {@link LocalShard} to {@link RemoteShard}s over local sockets, with a thread per
+ * connection. Run it as its own process with:
+ *
+ * <pre>
+ *   java -cp ... com.google.sps.ShardServer [port]
+ * </pre>
+ *
+ * <p>It prints the port it is listening on, which is useful when asking for any free port with 0,
+ * and stops when its standard input is closed.
+ */
+public final class ShardServer implements Closeable {
+  // Requests start with one of these bytes. Each request gets exactly one reply.
+  static final byte ADD_EVENT = 1;
+  static final byte BUSY_TIME = 2;
+
+  private final LocalShard shard = new LocalShard();
+  private final ServerSocket serverSocket;
+
+  /**
+   * Starts listening on {@code port} of the loopback interface, or on any free port if it is 0.
+   */
+  public ShardServer(int port) throws IOException {
+    this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+    Thread acceptor = new Thread(this::acceptConnections, "shard-server-" + port());
+    acceptor.setDaemon(true);
+    acceptor.start();
+  }
+
+  /**
+   * Returns the port the server is listening on.
+   */
+  public int port() {
+    return serverSocket.getLocalPort();
+  }
+
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+  }
+
+  private void acceptConnections() {
+    while (!serverSocket.isClosed()) {
+      try {
+        Socket socket = serverSocket.accept();
+        Thread connection = new Thread(() -> serve(socket), "shard-connection");
+        connection.setDaemon(true);
+        connection.start();
+      } catch (IOException e) {
+        // The server socket was closed.
+        return;
+      }
+    }
+  }
+
+  private void serve(Socket socket) {
+    try (Socket connection = socket) {
+      connection.setTcpNoDelay(true);
+      DataInputStream in =
+          new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+      DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+      while (true) {
+        byte request = in.readByte();
+        if (request == ADD_EVENT) {
+          String title = in.readUTF();
+          int start = in.readInt();
+          int end = in.readInt();
+          shard.addEvent(
+              new Event(title, TimeRange.fromStartEnd(start, end, false), readStrings(in)));
+          out.writeByte(0);
+        } else if (request == BUSY_TIME) {
+          long[] intervals = shard.busyTime(readStrings(in));
+          out.writeInt(intervals.length);
+          for (long interval : intervals) {
+            out.writeLong(interval);
+          }
+        } else {
+          throw new IOException("Unknown request: " + request);
+        }
+        out.flush();
+      }
+    } catch (EOFException e) {
+      // The client closed the connection.
+    } catch (IOException e) {
+      // The connection broke. The client sees the failure on its side.
+    }
+  }
+
+  private static List<String> readStrings(DataInputStream in) throws IOException {
+    int count = in.readInt();
+    List<String> strings = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      strings.add(in.readUTF());
+    }
+    return strings;
+  }
+
+  public static void main(String[] args) throws Exception {
+    ShardServer server = new ShardServer((args.length > 0) ? Integer.parseInt(args[0]) : 0);
+    System.out.println(server.port());
+    System.out.flush();
+    // Serve until standard input is closed, so that a worker goes away with whatever started it.
+    while (System.in.read() != -1) {}
+    server.close();
+  }
+}
@@ -0,0 +1,131 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A calendar split across several {@link CalendarShard}s by attendee. Each attendee belongs to
+ * exactly one shard, chosen by the hash of their name, and each shard only holds events for its
+ * own attendees. A query asks every shard that holds one of the requested attendees for their
+ * merged busy time at the same time, then merges the answers.
+ *
+ * <p>Use it with {@link FindMeetingQuery#query(ShardedCalendar, MeetingRequest)}.
+ */
+public final class ShardedCalendar implements Closeable {
+  private final List<CalendarShard> shards;
+  private final ExecutorService executor;
+
+  /**
+   * Creates a calendar over {@code shards}. The calendar owns the shards and closes them when it is
+   * closed. Every process that shares shards must list them in the same order.
+   *
+   * @param shards The shards to spread attendees over. Must be non-empty.
+   */
+  public ShardedCalendar(List<CalendarShard> shards) {
+    if (shards == null || shards.isEmpty()) {
+      throw new IllegalArgumentException("shards cannot be empty");
+    }
+
+    this.shards = new ArrayList<>(shards);
+    this.executor = Executors.newFixedThreadPool(shards.size(), runnable -> {
+      Thread thread = new Thread(runnable, "shard-query");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Adds {@code event} to the shard of every one of its attendees.
+   */
+  public void addEvent(Event event) {
+    for (Map.Entry<Integer, List<String>> entry : byShard(event.getAttendees()).entrySet()) {
+      shards.get(entry.getKey())
+          .addEvent(new Event(event.getTitle(), event.getWhen(), entry.getValue()));
+    }
+  }
+
+  /**
+   * Returns the union of the busy time of all of {@code attendees}, merged.
+   */
+  IntervalBuffer busyTime(Collection<String> attendees) {
+    Map<Integer, List<String>> attendeesByShard = byShard(attendees);
+    if (attendeesByShard.size() == 1) {
+      // Only one shard to ask, so there is nothing to do at the same time.
+      Map.Entry<Integer, List<String>> entry = attendeesByShard.entrySet().iterator().next();
+      return IntervalBuffer.ofMerged(shards.get(entry.getKey()).busyTime(entry.getValue()));
+    }
+
+    List<CompletableFuture<long[]>> answers = new ArrayList<>();
+    for (Map.Entry<Integer, List<String>> entry : attendeesByShard.entrySet()) {
+      CalendarShard shard = shards.get(entry.getKey());
+      answers.add(
+          CompletableFuture.supplyAsync(() -> shard.busyTime(entry.getValue()), executor));
+    }
+
+    IntervalBuffer busyTime = new IntervalBuffer();
+    for (CompletableFuture<long[]> answer : answers) {
+      busyTime = IntervalBuffer.union(busyTime, IntervalBuffer.ofMerged(answer.join()));
+    }
+    return busyTime;
+  }
+
+  /**
+   * Returns the number of the shard that holds {@code attendee}.
+   */
+  int shardOf(String attendee) {
+    // String hash codes are the same in every JVM, so every process agrees on this.
+    return Math.floorMod(attendee.hashCode(), shards.size());
+  }
+
+  @Override
+  public void close() throws IOException {
+    executor.shutdownNow();
+    IOException failure = null;
+    for (CalendarShard shard : shards) {
+      try {
+        shard.close();
+      } catch (IOException e) {
+        failure = e;
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private Map<Integer, List<String>> byShard(Collection<String> attendees) {
+    if (attendees.isEmpty()) {
+      return Collections.emptyMap();
+    }
+
+    Map<Integer, List<String>> attendeesByShard = new HashMap<>();
+    for (String attendee : attendees) {
+      attendeesByShard.computeIfAbsent(shardOf(attendee), key -> new ArrayList<>()).add(attendee);
+    }
+    return attendeesByShard;
+  }
+}
@@ -0,0 +1,61 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An {@link AvailabilityEngine} that looks at every event exactly once. Each event is probed
+ * against the attendees' registry IDs, the busy intervals that match are collected into one
+ * {@link IntervalBuffer}, which is sorted once and swept from start to end to emit the free gaps.
+ * For n events and m attendees this is O((n + m) log n) rather than the O(n * m) of checking every
+ * attendee against every event.
+ */
+public final class SweepLineEngine implements AvailabilityEngine {
+
+  @Override
+  public List<TimeRange> findAvailableTime(
+      Collection<Event> events, Collection<String> attendees, long duration) {
+    BitSet attendeeIds = AttendeeRegistry.global().findAll(attendees);
+    IntervalBuffer busy = new IntervalBuffer(events.size());
+
+    if (!attendeeIds.isEmpty()) {
+      for (Event event : events) {
+        if (isAttending(event, attendeeIds)) {
+          busy.add(event.getWhen());
+        }
+      }
+    }
+
+    busy.merge();
+    return busy.availableTime(duration);
+  }
+
+  /**
+   * Returns true if any of the event's attendees is in {@code attendeeIds}. Each check is a bit
+   * probe on the attendee's registry ID, so the cost is one integer lookup per event attendee.
+   */
+  static boolean isAttending(Event event, BitSet attendeeIds) {
+    for (int id : event.attendeeIds()) {
+      if (attendeeIds.get(id)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,93 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+/**
+ * When an attendee is willing to meet: a window of their local day, and how far their local time
+ * is ahead of UTC. The window may run past midnight, like a night shift from 22:00 to 06:00.
+ * Working hours are equal when they describe the same window in the same timezone, so attendees
+ * with equal working hours can share one precomputed mask.
+ */
+public final class WorkingHours {
+  private static final int MINUTES_IN_DAY = TimeRange.WHOLE_DAY.duration();
+  private static final int MAX_OFFSET = 14 * 60;
+
+  private final int utcOffset;
+  private final int start;
+  private final int end;
+
+  /**
+   * Creates working hours.
+   *
+   * @param utcOffset Minutes that local time is ahead of UTC, from -14:00 to +14:00.
+   * @param start The local minute of the day that work starts, inclusive.
+   * @param end The local minute of the day that work ends, exclusive. May be earlier than
+   *     {@code start} for a window that runs past midnight, but not equal to it. Use 0 and 1440 for
+   *     the whole day.
+   */
+  public WorkingHours(int utcOffset, int start, int end) {
+    if (Math.abs(utcOffset) > MAX_OFFSET) {
+      throw new IllegalArgumentException("utcOffset must be within 14 hours of UTC");
+    }
+
+    if (start < 0 || start >= MINUTES_IN_DAY || end < 0 || end > MINUTES_IN_DAY || start == end) {
+      throw new IllegalArgumentException("invalid working hours " + start + " to " + end);
+    }
+
+    this.utcOffset = utcOffset;
+    this.start = start;
+    this.end = end;
+  }
+
+  /**
+   * Returns the times of the UTC day that are outside of these working hours, merged.
+   */
+  IntervalBuffer offHours() {
+    int length = (end > start) ? end - start : end - start + MINUTES_IN_DAY;
+    int from = Math.floorMod(start - utcOffset, MINUTES_IN_DAY);
+    int to = from + length;
+
+    IntervalBuffer offHours = new IntervalBuffer(2);
+    if (to <= MINUTES_IN_DAY) {
+      // One window inside the UTC day, with off hours before and after it.
+      offHours.add(0, from);
+      offHours.add(to, MINUTES_IN_DAY);
+    } else {
+      // The window wraps past midnight UTC, so the off hours are the one stretch in between.
+      offHours.add(to - MINUTES_IN_DAY, from);
+    }
+    offHours.merge();
+    return offHours;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof WorkingHours
+        && utcOffset == ((WorkingHours) other).utcOffset
+        && start == ((WorkingHours) other).start
+        && end == ((WorkingHours) other).end;
+  }
+
+  @Override
+  public int hashCode() {
+    return (utcOffset * 31 + start) * 31 + end;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d to %d at UTC%+d minutes", start, end, utcOffset);
+  }
+}
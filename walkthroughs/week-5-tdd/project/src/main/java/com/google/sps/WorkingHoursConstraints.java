@@ -0,0 +1,78 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The working hours of every attendee who has them, compiled into masks of the UTC day that are
+ * added to busy time before looking for gaps. Attendees with equal {@link WorkingHours} form one
+ * group that shares a single mask, so a dozen timezones cost a dozen masks no matter how many
+ * attendees there are. Attendees without working hours can meet at any time.
+ *
+ * <p>Instances are immutable and safe to share between threads.
+ */
+public final class WorkingHoursConstraints {
+  private final Map<String, IntervalBuffer> offHoursByAttendee = new HashMap<>();
+
+  /**
+   * Creates constraints from each attendee's working hours.
+   *
+   * @param hoursByAttendee The working hours of each attendee who has them. Must be non-null.
+   */
+  public WorkingHoursConstraints(Map<String, WorkingHours> hoursByAttendee) {
+    if (hoursByAttendee == null) {
+      throw new IllegalArgumentException("hoursByAttendee cannot be null");
+    }
+
+    Map<WorkingHours, IntervalBuffer> offHoursByGroup = new HashMap<>();
+    for (Map.Entry<String, WorkingHours> entry : hoursByAttendee.entrySet()) {
+      offHoursByAttendee.put(entry.getKey(),
+          offHoursByGroup.computeIfAbsent(entry.getValue(), WorkingHours::offHours));
+    }
+  }
+
+  /**
+   * Returns the times of the UTC day when at least one of {@code attendees} is off work, merged,
+   * or null if none of them have working hours.
+   */
+  IntervalBuffer offHours(Collection<String> attendees) {
+    // Masks are shared by every attendee in a group, so each group is only added once.
+    Map<IntervalBuffer, Boolean> groups = new IdentityHashMap<>();
+    for (String attendee : attendees) {
+      IntervalBuffer offHours = offHoursByAttendee.get(attendee);
+      if (offHours != null) {
+        groups.put(offHours, Boolean.TRUE);
+      }
+    }
+
+    if (groups.isEmpty()) {
+      return null;
+    }
+
+    List<IntervalBuffer> masks = new ArrayList<>(groups.keySet());
+    IntervalBuffer offHours = masks.get(0);
+    for (int i = 1; i < masks.size(); i++) {
+      offHours = IntervalBuffer.union(offHours, masks.get(i));
+    }
+    return offHours;
+  }
+}
@@ -0,0 +1,173 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.servlets;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.google.sps.Events;
+import com.google.sps.FindMeetingQuery;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * The same as {@link QueryServlet}, but the query runs on a bounded {@link QueryExecutor} so that
+ * expensive queries don't tie up the container's request threads. When the executor is full, or a
+ * query takes too long, the client gets a 503 with a {@code Retry-After} header. A query that
+ * times out while still waiting in the queue never runs, but one that has already started runs to
+ * the end on its thread and its answer is thrown away.
+ */
+@WebServlet(urlPatterns = "/query-async", asyncSupported = true)
+public class AsyncQueryServlet extends HttpServlet {
+  private static final int QUEUE_CAPACITY = 64;
+  private static final long TIMEOUT_MILLISECONDS = 10_000;
+  private static final String RETRY_AFTER_SECONDS = "1";
+
+  private final Function<MeetingRequest, Collection<TimeRange>> finder;
+  private QueryExecutor executor;
+
+  public AsyncQueryServlet() {
+    this(null, meetingRequest -> new FindMeetingQuery(MetricsServlet.SCHEDULER_METRICS)
+        .query(Arrays.asList(Events.events), meetingRequest));
+  }
+
+  // Used by tests to run on their own executor and answer with their own finder.
+  AsyncQueryServlet(
+      QueryExecutor executor, Function<MeetingRequest, Collection<TimeRange>> finder) {
+    this.executor = executor;
+    this.finder = finder;
+  }
+
+  @Override
+  public void init() {
+    executor = new QueryExecutor(Runtime.getRuntime().availableProcessors(), QUEUE_CAPACITY);
+    // Published so that /metrics can report how busy the executor is.
+    getServletContext().setAttribute(QueryExecutor.ATTRIBUTE, executor);
+  }
+
+  @Override
+  public void destroy() {
+    getServletContext().removeAttribute(QueryExecutor.ATTRIBUTE);
+    executor.shutdown();
+  }
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    // Reading the request is cheap, so it is done before leaving the container thread.
+    MeetingRequest meetingRequest =
+        Json.GSON.getAdapter(MeetingRequest.class).read(new JsonReader(request.getReader()));
+
+    AsyncContext context = request.startAsync();
+    context.setTimeout(TIMEOUT_MILLISECONDS);
+
+    // Whichever of the query and the timeout finishes first gets to write the response. The
+    // listener is added before the query is submitted, since a fast query can complete the
+    // context before submit returns.
+    AtomicBoolean responded = new AtomicBoolean();
+    AtomicReference<Future<?>> future = new AtomicReference<>();
+    context.addListener(new AsyncListener() {
+      @Override
+      public void onTimeout(AsyncEvent event) {
+        if (responded.compareAndSet(false, true)) {
+          cancel(future.get());
+          rejectBusy(context);
+        }
+      }
+
+      @Override
+      public void onComplete(AsyncEvent event) {}
+
+      @Override
+      public void onError(AsyncEvent event) {
+        cancel(future.get());
+      }
+
+      @Override
+      public void onStartAsync(AsyncEvent event) {}
+    });
+
+    try {
+      future.set(executor.submit(() -> {
+        Collection<TimeRange> answer;
+        try {
+          answer = finder.apply(meetingRequest);
+        } catch (RuntimeException e) {
+          // Nothing else will complete the context, so fail now rather than at the timeout.
+          if (responded.compareAndSet(false, true)) {
+            fail(context);
+          }
+          context.getRequest().getServletContext().log("could not find meeting times", e);
+          return;
+        }
+        if (responded.compareAndSet(false, true)) {
+          writeAnswer(context, answer);
+        }
+      }));
+    } catch (RejectedExecutionException e) {
+      if (responded.compareAndSet(false, true)) {
+        rejectBusy(context);
+      }
+    }
+  }
+
+  private static void cancel(Future<?> future) {
+    if (future != null) {
+      future.cancel(true);
+    }
+  }
+
+  private static void writeAnswer(AsyncContext context, Collection<TimeRange> answer) {
+    try {
+      HttpServletResponse response = (HttpServletResponse) context.getResponse();
+      response.setContentType("application/json");
+      JsonWriter writer = new JsonWriter(response.getWriter());
+      Json.writeTimeRanges(writer, answer);
+      writer.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      context.complete();
+    }
+  }
+
+  private static void fail(AsyncContext context) {
+    HttpServletResponse response = (HttpServletResponse) context.getResponse();
+    response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+    context.complete();
+  }
+
+  private static void rejectBusy(AsyncContext context) {
+    HttpServletResponse response = (HttpServletResponse) context.getResponse();
+    response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+    response.setHeader("Retry-After", RETRY_AFTER_SECONDS);
+    context.complete();
+  }
+}
@@ -15,22 +15,49 @@
 package com.google.sps.servlets;
 
 import com.google.sps.Events;
-import com.google.gson.Gson;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-@WebServlet("/get-events")
+@WebServlet(urlPatterns = "/get-events", asyncSupported = true)
 public class GetEventsServlet extends HttpServlet {
+  // The events never change, so they are converted to JSON and compressed only once.
+  private PrecomputedPayload payload;
+
+  @Override
+  public void init() {
+    String json = Json.GSON.toJson(Events.events);
+    payload = new PrecomputedPayload(json.getBytes(StandardCharsets.UTF_8));
+  }
+
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    Gson gson = new Gson();
-    String jsonResponse = gson.toJson(Events.events);
+    TaskDispatchers.serve(request, response, this::handle);
+  }
+
+  private void handle(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    PrecomputedPayload.Variant variant = payload.select(request.getHeader("Accept-Encoding"));
+
+    // Clients may keep the events but have to check with us before using them again.
+    response.setHeader("Cache-Control", "no-cache");
+    response.setHeader("Vary", "Accept-Encoding");
+    response.setHeader("ETag", variant.etag);
+
+    if (PrecomputedPayload.matches(request.getHeader("If-None-Match"), variant.etag)) {
+      response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+      return;
+    }
 
     // Send the JSON back as the response
-    response.setContentType("application/json");
-    response.getWriter().println(jsonResponse);
+    response.setContentType("application/json;charset=UTF-8");
+    if (variant.contentEncoding != null) {
+      response.setHeader("Content-Encoding", variant.contentEncoding);
+    }
+    response.setContentLength(variant.body.length);
+    response.getOutputStream().write(variant.body);
   }
 }
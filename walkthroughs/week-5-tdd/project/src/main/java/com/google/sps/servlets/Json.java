@@ -0,0 +1,196 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.servlets;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.sps.Event;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The JSON support shared by the servlets. {@link Gson} instances are thread-safe, so one is built
+ * up front with hand-written adapters for the types that are read and written on every request.
+ * The adapters avoid reflection and write time ranges as {@code [start, end]} pairs instead of
+ * objects with field names.
+ */
+final class Json {
+  static final Gson GSON = new GsonBuilder()
+      .registerTypeAdapter(MeetingRequest.class, new MeetingRequestAdapter().nullSafe())
+      .registerTypeAdapter(TimeRange.class, new TimeRangeAdapter().nullSafe())
+      .registerTypeAdapter(Event.class, new EventAdapter().nullSafe())
+      .create();
+
+  private static final TypeAdapter<TimeRange> TIME_RANGE_ADAPTER = GSON.getAdapter(TimeRange.class);
+
+  private Json() {}
+
+  /**
+   * Writes {@code ranges} as a JSON array, one range at a time.
+   */
+  static void writeTimeRanges(JsonWriter writer, Collection<TimeRange> ranges) throws IOException {
+    writer.beginArray();
+    for (TimeRange range : ranges) {
+      TIME_RANGE_ADAPTER.write(writer, range);
+    }
+    writer.endArray();
+  }
+
+  /**
+   * Reads a {@link MeetingRequest} field by field, without building a tree or going through
+   * reflection. Missing lists are left empty and unknown fields are skipped.
+   */
+  static final class MeetingRequestAdapter extends TypeAdapter<MeetingRequest> {
+    @Override
+    public MeetingRequest read(JsonReader reader) throws IOException {
+      List<String> attendees = new ArrayList<>();
+      List<String> optionalAttendees = new ArrayList<>();
+      long duration = 0;
+
+      reader.beginObject();
+      while (reader.hasNext()) {
+        switch (reader.nextName()) {
+          case "attendees":
+            readStrings(reader, attendees);
+            break;
+          case "optional_attendees":
+            readStrings(reader, optionalAttendees);
+            break;
+          case "duration":
+            duration = reader.nextLong();
+            break;
+          default:
+            reader.skipValue();
+        }
+      }
+      reader.endObject();
+
+      MeetingRequest request = new MeetingRequest(attendees, duration);
+      for (String attendee : optionalAttendees) {
+        request.addOptionalAttendee(attendee);
+      }
+      return request;
+    }
+
+    @Override
+    public void write(JsonWriter writer, MeetingRequest request) throws IOException {
+      writer.beginObject();
+      writer.name("attendees");
+      writeStrings(writer, request.getAttendees());
+      writer.name("optional_attendees");
+      writeStrings(writer, request.getOptionalAttendees());
+      writer.name("duration").value(request.getDuration());
+      writer.endObject();
+    }
+  }
+
+  /**
+   * Writes a {@link TimeRange} as a compact {@code [start, end]} pair, with the end exclusive.
+   */
+  static final class TimeRangeAdapter extends TypeAdapter<TimeRange> {
+    @Override
+    public TimeRange read(JsonReader reader) throws IOException {
+      reader.beginArray();
+      int start = reader.nextInt();
+      int end = reader.nextInt();
+      reader.endArray();
+      return TimeRange.fromStartEnd(start, end, false);
+    }
+
+    @Override
+    public void write(JsonWriter writer, TimeRange range) throws IOException {
+      writer.beginArray();
+      writer.value(range.start());
+      writer.value(range.end());
+      writer.endArray();
+    }
+  }
+
+  /**
+   * Writes an {@link Event} as {@code {"title": ..., "when": [start, end], "attendees": [...]}}.
+   * The attendee names come straight from the event's interned array, in registry order.
+   */
+  static final class EventAdapter extends TypeAdapter<Event> {
+    private final TypeAdapter<TimeRange> timeRangeAdapter = new TimeRangeAdapter();
+
+    @Override
+    public Event read(JsonReader reader) throws IOException {
+      String title = null;
+      TimeRange when = null;
+      List<String> attendees = new ArrayList<>();
+
+      reader.beginObject();
+      while (reader.hasNext()) {
+        switch (reader.nextName()) {
+          case "title":
+            title = reader.nextString();
+            break;
+          case "when":
+            when = timeRangeAdapter.read(reader);
+            break;
+          case "attendees":
+            readStrings(reader, attendees);
+            break;
+          default:
+            reader.skipValue();
+        }
+      }
+      reader.endObject();
+      return new Event(title, when, attendees);
+    }
+
+    @Override
+    public void write(JsonWriter writer, Event event) throws IOException {
+      writer.beginObject();
+      writer.name("title").value(event.getTitle());
+      writer.name("when");
+      timeRangeAdapter.write(writer, event.getWhen());
+      writer.name("attendees");
+      writeStrings(writer, event.getAttendees());
+      writer.endObject();
+    }
+  }
+
+  private static void readStrings(JsonReader reader, List<String> strings) throws IOException {
+    if (reader.peek() == JsonToken.NULL) {
+      reader.nextNull();
+      return;
+    }
+
+    reader.beginArray();
+    while (reader.hasNext()) {
+      strings.add(reader.nextString());
+    }
+    reader.endArray();
+  }
+
+  private static void writeStrings(JsonWriter writer, Collection<String> strings)
+      throws IOException {
+    writer.beginArray();
+    for (String string : strings) {
+      writer.value(string);
+    }
+    writer.endArray();
+  }
+}
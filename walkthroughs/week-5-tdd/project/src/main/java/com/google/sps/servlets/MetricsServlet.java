@@ -0,0 +1,50 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.servlets;
+
+import com.google.sps.RecordingSchedulerMetrics;
+import java.io.IOException;
+import java.util.Map;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Reports what the query servlets' schedulers have recorded, as JSON, along with how busy the
+ * {@link AsyncQueryServlet}'s executor is when that servlet is running.
+ */
+@WebServlet("/metrics")
+public class MetricsServlet extends HttpServlet {
+  // Shared by every servlet that answers meeting requests.
+  static final RecordingSchedulerMetrics SCHEDULER_METRICS = new RecordingSchedulerMetrics();
+
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    Map<String, Object> snapshot = SCHEDULER_METRICS.snapshot();
+    QueryExecutor executor =
+        (QueryExecutor) getServletContext().getAttribute(QueryExecutor.ATTRIBUTE);
+    if (executor != null) {
+      snapshot.put("queryExecutor", executor.snapshot());
+    }
+    String jsonResponse = Json.GSON.toJson(snapshot);
+
+    // Send the JSON back as the response
+    response.setHeader("Cache-Control", "no-store");
+    response.setContentType("application/json");
+    response.getWriter().println(jsonResponse);
+  }
+}
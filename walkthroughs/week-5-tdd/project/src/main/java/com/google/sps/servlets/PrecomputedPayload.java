@@ -0,0 +1,151 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.servlets;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A response body that never changes, encoded once up front in every content coding that is
+ * served, each with its own strong ETag.
+ */
+final class PrecomputedPayload {
+  /**
+   * One encoding of the payload.
+   */
+  static final class Variant {
+    // The Content-Encoding header value, or null for the identity encoding.
+    final String contentEncoding;
+    final String etag;
+    final byte[] body;
+
+    Variant(String contentEncoding, String etag, byte[] body) {
+      this.contentEncoding = contentEncoding;
+      this.etag = etag;
+      this.body = body;
+    }
+  }
+
+  private final Variant identity;
+  private final Variant gzip;
+  private final Variant deflate;
+
+  /**
+   * Creates a payload of {@code body}, which must not be changed afterwards.
+   */
+  PrecomputedPayload(byte[] body) {
+    String hash = sha256(body);
+    this.identity = new Variant(null, "\"" + hash + "\"", body);
+    this.gzip = new Variant("gzip", "\"" + hash + "-gzip\"", compress(body, true));
+    this.deflate = new Variant("deflate", "\"" + hash + "-deflate\"", compress(body, false));
+  }
+
+  /**
+   * Returns the smallest variant allowed by an {@code Accept-Encoding} header, which may be null.
+   */
+  Variant select(String acceptEncoding) {
+    Variant best = identity;
+    if (accepts(acceptEncoding, "gzip") && gzip.body.length < best.body.length) {
+      best = gzip;
+    }
+    if (accepts(acceptEncoding, "deflate") && deflate.body.length < best.body.length) {
+      best = deflate;
+    }
+    return best;
+  }
+
+  /**
+   * Returns true if an {@code If-None-Match} header, which may be null, matches {@code etag}.
+   */
+  static boolean matches(String ifNoneMatch, String etag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+
+    for (String tag : ifNoneMatch.split(",")) {
+      tag = tag.trim();
+      // If-None-Match uses weak comparison, so a weak form of our tag matches too.
+      if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean accepts(String acceptEncoding, String coding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+
+    for (String part : acceptEncoding.split(",")) {
+      String[] parameters = part.split(";");
+      if (!parameters[0].trim().equalsIgnoreCase(coding)) {
+        continue;
+      }
+      for (int i = 1; i < parameters.length; i++) {
+        String parameter = parameters[i].trim();
+        if (parameter.startsWith("q=") && !isPositive(parameter.substring(2))) {
+          return false;
+        }
+      }
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Returns true if {@code qvalue} is a number above zero. Anything malformed counts as zero, so a
+   * bad header falls back to the identity body rather than failing the request.
+   */
+  private static boolean isPositive(String qvalue) {
+    try {
+      return Double.parseDouble(qvalue) > 0;
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+
+  private static byte[] compress(byte[] body, boolean gzip) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (OutputStream out =
+        gzip ? new GZIPOutputStream(bytes) : new DeflaterOutputStream(bytes)) {
+      out.write(body);
+    } catch (IOException e) {
+      // Writing to memory cannot fail.
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static String sha256(byte[] body) {
+    try {
+      StringBuilder hex = new StringBuilder();
+      for (byte b : MessageDigest.getInstance("SHA-256").digest(body)) {
+        hex.append(String.format("%02x", b));
+      }
+      return hex.toString();
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256.
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,89 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.servlets;
+
+import com.google.sps.EventIndex;
+import com.google.sps.Events;
+import com.google.sps.FindMeetingQuery;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+@WebServlet(urlPatterns = "/query-batch", asyncSupported = true)
+public class QueryBatchServlet extends HttpServlet {
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    TaskDispatchers.serve(request, response, QueryBatchServlet::handle);
+  }
+
+  private static void handle(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    // Convert the JSON array to a list of MeetingRequests.
+    List<MeetingRequest> meetingRequests =
+        Arrays.asList(Json.GSON.fromJson(request.getReader(), MeetingRequest[].class));
+
+    // Find the possible meeting times for every request.
+    List<Collection<TimeRange>> answers = findAll(meetingRequests);
+
+    // Convert the times to JSON, one array of times per request.
+    String jsonResponse = Json.GSON.toJson(answers);
+
+    // Send the JSON back as the response
+    response.setContentType("application/json");
+    response.getWriter().println(jsonResponse);
+  }
+
+  /**
+   * Finds the possible meeting times for every request. With a {@link TaskDispatcher}, each
+   * request gets its own task and they all share one index of the events. Otherwise the requests
+   * are answered in one pass on this thread.
+   */
+  private static List<Collection<TimeRange>> findAll(List<MeetingRequest> meetingRequests)
+      throws IOException {
+    FindMeetingQuery findMeetingQuery =
+        new FindMeetingQuery(MetricsServlet.SCHEDULER_METRICS);
+    TaskDispatcher dispatcher = TaskDispatchers.get();
+    if (dispatcher == null) {
+      return findMeetingQuery.queryAll(Arrays.asList(Events.events), meetingRequests);
+    }
+
+    EventIndex index = new EventIndex(Arrays.asList(Events.events));
+    List<Callable<Collection<TimeRange>>> tasks = new ArrayList<>();
+    for (MeetingRequest meetingRequest : meetingRequests) {
+      tasks.add(() -> findMeetingQuery.query(index, meetingRequest));
+    }
+
+    try {
+      return dispatcher.invokeAll(tasks);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("interrupted while finding meeting times");
+    } catch (ExecutionException e) {
+      throw new IOException("could not find meeting times", e.getCause());
+    }
+  }
+}
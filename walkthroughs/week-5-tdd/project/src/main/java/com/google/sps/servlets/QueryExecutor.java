@@ -0,0 +1,140 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.servlets;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fixed pool of threads with a bounded queue for running queries off the container's request
+ * threads. When every thread is busy and the queue is full, new work is rejected straight away
+ * instead of waiting, so callers can tell clients to come back later.
+ */
+final class QueryExecutor {
+  // The servlet context attribute that a running executor is published under.
+  static final String ATTRIBUTE = QueryExecutor.class.getName();
+
+  private final ThreadPoolExecutor executor;
+  private final AtomicLong rejectedCount = new AtomicLong();
+  private final AtomicInteger largestQueueDepth = new AtomicInteger();
+
+  /**
+   * Creates an executor.
+   *
+   * @param threads How many queries can run at the same time. Must be positive.
+   * @param queueCapacity How many queries can wait for a thread. Must be positive.
+   */
+  QueryExecutor(int threads, int queueCapacity) {
+    if (threads <= 0) {
+      throw new IllegalArgumentException("threads must be positive");
+    }
+
+    if (queueCapacity <= 0) {
+      throw new IllegalArgumentException("queueCapacity must be positive");
+    }
+
+    AtomicInteger threadCount = new AtomicInteger();
+    ThreadFactory threadFactory = runnable -> {
+      Thread thread = new Thread(runnable, "query-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+    this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), threadFactory,
+        new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  /**
+   * Runs {@code task} on one of the executor's threads.
+   *
+   * @throws RejectedExecutionException if every thread is busy and the queue is full, or the
+   *     executor has been shut down.
+   */
+  Future<?> submit(Runnable task) {
+    Future<?> future;
+    try {
+      future = executor.submit(task);
+    } catch (RejectedExecutionException e) {
+      rejectedCount.incrementAndGet();
+      throw e;
+    }
+    largestQueueDepth.accumulateAndGet(executor.getQueue().size(), Math::max);
+    return future;
+  }
+
+  /**
+   * Stops accepting work and interrupts any running queries.
+   */
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Returns how many queries are running right now.
+   */
+  int activeCount() {
+    return executor.getActiveCount();
+  }
+
+  /**
+   * Returns how many queries are waiting for a thread right now.
+   */
+  int queueDepth() {
+    return executor.getQueue().size();
+  }
+
+  /**
+   * Returns the most queries that have been waiting for a thread at once.
+   */
+  int largestQueueDepth() {
+    return largestQueueDepth.get();
+  }
+
+  /**
+   * Returns how many queries have finished, including ones that failed or were cancelled.
+   */
+  long completedCount() {
+    return executor.getCompletedTaskCount();
+  }
+
+  /**
+   * Returns how many queries were turned away because the executor was full.
+   */
+  long rejectedCount() {
+    return rejectedCount.get();
+  }
+
+  /**
+   * Returns all of the counts above, keyed by name, in a form that can be written as JSON.
+   */
+  Map<String, Object> snapshot() {
+    Map<String, Object> snapshot = new LinkedHashMap<>();
+    snapshot.put("activeCount", activeCount());
+    snapshot.put("queueDepth", queueDepth());
+    snapshot.put("largestQueueDepth", largestQueueDepth());
+    snapshot.put("completedCount", completedCount());
+    snapshot.put("rejectedCount", rejectedCount());
+    return snapshot;
+  }
+}
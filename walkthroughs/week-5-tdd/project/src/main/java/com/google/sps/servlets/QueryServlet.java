@@ -18,7 +18,8 @@ import com.google.sps.Events;
 import com.google.sps.FindMeetingQuery;
 import com.google.sps.MeetingRequest;
 import com.google.sps.TimeRange;
-import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
@@ -27,25 +28,29 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-@WebServlet("/query")
+@WebServlet(urlPatterns = "/query", asyncSupported = true)
 public class QueryServlet extends HttpServlet {
   @Override
   public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    Gson gson = new Gson();
+    TaskDispatchers.serve(request, response, QueryServlet::handle);
+  }
 
-    // Convert the JSON to an instance of MeetingRequest.
-    MeetingRequest meetingRequest = gson.fromJson(request.getReader(), MeetingRequest.class);
+  private static void handle(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    // Read the JSON straight into an instance of MeetingRequest.
+    MeetingRequest meetingRequest =
+        Json.GSON.getAdapter(MeetingRequest.class).read(new JsonReader(request.getReader()));
 
     // Find the possible meeting times.
-    FindMeetingQuery findMeetingQuery = new FindMeetingQuery();
+    FindMeetingQuery findMeetingQuery =
+        new FindMeetingQuery(MetricsServlet.SCHEDULER_METRICS);
     Collection<TimeRange> answer =
         findMeetingQuery.query(Arrays.asList(Events.events), meetingRequest);
 
-    // Convert the times to JSON
-    String jsonResponse = gson.toJson(answer);
-
-    // Send the JSON back as the response
+    // Send the times back as JSON, writing each one as it is converted.
     response.setContentType("application/json");
-    response.getWriter().println(jsonResponse);
+    JsonWriter writer = new JsonWriter(response.getWriter());
+    Json.writeTimeRanges(writer, answer);
+    writer.flush();
   }
 }
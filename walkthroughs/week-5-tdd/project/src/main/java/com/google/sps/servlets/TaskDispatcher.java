@@ -0,0 +1,39 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.servlets;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Runs servlet work somewhere other than the container's request thread. Implementations are
+ * found with {@link java.util.ServiceLoader}; see {@link TaskDispatchers}.
+ */
+public interface TaskDispatcher {
+  /**
+   * Starts running {@code task} and returns without waiting for it.
+   */
+  void dispatch(Runnable task);
+
+  /**
+   * Runs every one of {@code tasks} at the same time and returns their results in order. If any
+   * task fails, the others are cancelled and the failure is thrown. No task is still running when
+   * this returns.
+   */
+  <T> List<T> invokeAll(List<Callable<T>> tasks)
+      throws InterruptedException, ExecutionException;
+}
@@ -0,0 +1,87 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.servlets;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.ServiceLoader;
+import javax.servlet.AsyncContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Finds the {@link TaskDispatcher}, if any, that the build registered, and uses it to run servlet
+ * requests. The default build registers none, so requests stay on the container's threads.
+ */
+final class TaskDispatchers {
+  private static final TaskDispatcher DISPATCHER = load();
+
+  /**
+   * Handles one request. The same as the body of a {@code doGet} or {@code doPost}.
+   */
+  interface Handler {
+    void handle(HttpServletRequest request, HttpServletResponse response) throws IOException;
+  }
+
+  private TaskDispatchers() {}
+
+  /**
+   * Returns the registered dispatcher, or null if there is none.
+   */
+  static TaskDispatcher get() {
+    return DISPATCHER;
+  }
+
+  /**
+   * Runs {@code handler} with the registered dispatcher, or on the calling thread if there is none
+   * or the request doesn't support async processing.
+   */
+  static void serve(HttpServletRequest request, HttpServletResponse response, Handler handler)
+      throws IOException {
+    if (DISPATCHER == null || !request.isAsyncSupported()) {
+      handler.handle(request, response);
+      return;
+    }
+
+    AsyncContext context = request.startAsync();
+    DISPATCHER.dispatch(() -> {
+      try {
+        handler.handle(request, response);
+      } catch (IOException | RuntimeException e) {
+        sendError(response);
+      } finally {
+        context.complete();
+      }
+    });
+  }
+
+  private static void sendError(HttpServletResponse response) {
+    if (response.isCommitted()) {
+      return;
+    }
+
+    try {
+      response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+    } catch (IOException e) {
+      // The client has gone away, so there is nobody left to tell.
+    }
+  }
+
+  private static TaskDispatcher load() {
+    Iterator<TaskDispatcher> dispatchers = ServiceLoader.load(TaskDispatcher.class).iterator();
+    return dispatchers.hasNext() ? dispatchers.next() : null;
+  }
+}
@@ -59,10 +59,11 @@ function queryServer(meetingRequest) {
         return response.json();
       })
       .then((timeRanges) => {
-        // Convert the range from a json representation to our TimeRange class.
+        // Convert the range from its [start, end] json representation to our
+        // TimeRange class.
         const out = [];
         timeRanges.forEach((range) => {
-          out.push(new TimeRange(range.start, range.duration));
+          out.push(new TimeRange(range[0], range[1] - range[0]));
         });
         return out;
       });
@@ -124,7 +125,7 @@ function getAllEvents() {
       })
       .then((events) => {
         return events.map((event) => {
-          const time = new TimeRange(event.when.start, event.when.duration);
+          const time = new TimeRange(event.when[0], event.when[1] - event.when[0]);
           return new Event(event.title, time, event.attendees);
         });
       });
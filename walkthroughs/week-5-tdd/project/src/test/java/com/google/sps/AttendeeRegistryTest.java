@@ -0,0 +1,100 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import com.google.gson.Gson;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class AttendeeRegistryTest {
+  @Test
+  public void internAssignsDenseIds() {
+    AttendeeRegistry registry = new AttendeeRegistry();
+
+    Assert.assertEquals(0, registry.intern("Person A"));
+    Assert.assertEquals(1, registry.intern("Person B"));
+    Assert.assertEquals(0, registry.intern("Person A"));
+    Assert.assertEquals(2, registry.size());
+    Assert.assertEquals("Person B", registry.nameOf(1));
+  }
+
+  @Test
+  public void findDoesNotIntern() {
+    AttendeeRegistry registry = new AttendeeRegistry();
+
+    Assert.assertEquals(-1, registry.find("Person A"));
+    Assert.assertEquals(0, registry.size());
+  }
+
+  @Test
+  public void internAllIsSortedAndDistinct() {
+    AttendeeRegistry registry = new AttendeeRegistry();
+    registry.intern("Person C");
+    registry.intern("Person A");
+
+    int[] actual =
+        registry.internAll(Arrays.asList("Person A", "Person B", "Person C", "Person A"));
+    int[] expected = {0, 1, 2};
+
+    Assert.assertArrayEquals(expected, actual);
+  }
+
+  @Test
+  public void eventsShareInternedNames() {
+    // Build the name at runtime so that it is a different instance from the literal.
+    String name = new StringBuilder("Person ").append('A').toString();
+    Event first = new Event("Event 1", TimeRange.WHOLE_DAY, Arrays.asList("Person A", "Person B"));
+    Event second = new Event("Event 1", TimeRange.WHOLE_DAY, Arrays.asList("Person B", name));
+
+    Assert.assertEquals(first, second);
+    Assert.assertTrue(second.getAttendees().contains("Person A"));
+    Assert.assertFalse(second.getAttendees().contains("Person C"));
+    Assert.assertSame(first.getAttendees().iterator().next(),
+        second.getAttendees().iterator().next());
+  }
+
+  @Test
+  public void eventsWithDifferentAttendeesAreNotEqual() {
+    Event first = new Event("Event 1", TimeRange.WHOLE_DAY, Arrays.asList("Person A"));
+    Event second = new Event("Event 1", TimeRange.WHOLE_DAY, Collections.emptyList());
+
+    Assert.assertNotEquals(first, second);
+  }
+
+  @Test
+  public void eventsReadByReflectionRebuildTheirIds() {
+    // A plain Gson never runs the constructor, so the IDs have to come from the names.
+    String json = "{\"title\":\"Event 1\",\"when\":{\"start\":0,\"duration\":60},"
+        + "\"attendees\":[\"Person A\",\"Person B\",\"Person A\"]}";
+    Event event = new Gson().fromJson(json, Event.class);
+    Event expected = new Event("Event 1", TimeRange.fromStartDuration(0, 60),
+        Arrays.asList("Person A", "Person B"));
+
+    Assert.assertTrue(event.getAttendees().contains("Person A"));
+    Assert.assertEquals(2, event.getAttendees().size());
+    Assert.assertEquals(expected, event);
+    Assert.assertEquals(new SweepLineEngine().findAvailableTime(Arrays.asList(expected),
+            Arrays.asList("Person A"), 30),
+        new SweepLineEngine().findAvailableTime(Arrays.asList(event),
+            Arrays.asList("Person A"), 30));
+  }
+}
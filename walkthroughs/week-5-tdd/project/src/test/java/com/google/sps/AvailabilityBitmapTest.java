@@ -0,0 +1,80 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class AvailabilityBitmapTest {
+  @Test
+  public void markBusyAcrossWordBoundaries() {
+    // Minutes 60 through 130 span the first three words of the bitmap.
+    AvailabilityBitmap bitmap = new AvailabilityBitmap();
+    bitmap.markBusy(60, 130);
+
+    Assert.assertFalse(bitmap.isBusy(59));
+    Assert.assertTrue(bitmap.isBusy(60));
+    Assert.assertTrue(bitmap.isBusy(63));
+    Assert.assertTrue(bitmap.isBusy(64));
+    Assert.assertTrue(bitmap.isBusy(128));
+    Assert.assertTrue(bitmap.isBusy(129));
+    Assert.assertFalse(bitmap.isBusy(130));
+  }
+
+  @Test
+  public void markBusyEndingOnWordBoundary() {
+    AvailabilityBitmap bitmap = new AvailabilityBitmap();
+    bitmap.markBusy(0, 64);
+
+    Assert.assertTrue(bitmap.isBusy(0));
+    Assert.assertTrue(bitmap.isBusy(63));
+    Assert.assertFalse(bitmap.isBusy(64));
+  }
+
+  @Test
+  public void orCombinesSchedules() {
+    AvailabilityBitmap first = new AvailabilityBitmap();
+    first.markBusy(100, 200);
+    AvailabilityBitmap second = new AvailabilityBitmap();
+    second.markBusy(150, 300);
+
+    Collection<TimeRange> actual = first.or(second).availableTime(1);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, 100, false),
+            TimeRange.fromStartEnd(300, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void availableTimeSkipsShortGaps() {
+    AvailabilityBitmap bitmap = new AvailabilityBitmap();
+    bitmap.markBusy(TimeRange.START_OF_DAY, 500);
+    bitmap.markBusy(510, 600);
+    bitmap.markBusy(700, TimeRange.WHOLE_DAY.end());
+
+    Collection<TimeRange> actual = bitmap.availableTime(30);
+    Collection<TimeRange> expected = Arrays.asList(TimeRange.fromStartEnd(600, 700, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+}
@@ -0,0 +1,169 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates synthetic single-day calendars for benchmarks and randomized tests. A calendar is
+ * shaped by how many events it has, how many people attend each event, how many people there are
+ * in total, how densely each person's events overlap, and how often an event is an edge case. The
+ * same seed always produces the same calendar.
+ */
+final class CalendarGenerator {
+  private static final int MINUTES_IN_DAY = TimeRange.WHOLE_DAY.duration();
+
+  private final Random random;
+  private int eventCount = 1000;
+  private int attendeesPerEvent = 3;
+  private int peopleCount = 200;
+  private double overlapDensity = 0.5;
+  private double edgeCaseRate = 0;
+
+  CalendarGenerator(long seed) {
+    this.random = new Random(seed);
+  }
+
+  /**
+   * Sets how many events the calendar has.
+   */
+  CalendarGenerator eventCount(int eventCount) {
+    this.eventCount = eventCount;
+    return this;
+  }
+
+  /**
+   * Sets how many people attend each event.
+   */
+  CalendarGenerator attendeesPerEvent(int attendeesPerEvent) {
+    this.attendeesPerEvent = attendeesPerEvent;
+    return this;
+  }
+
+  /**
+   * Sets how many distinct people appear in the calendar.
+   */
+  CalendarGenerator peopleCount(int peopleCount) {
+    this.peopleCount = peopleCount;
+    return this;
+  }
+
+  /**
+   * Sets the average number of a person's events that cover any one minute of the day. Around
+   * 1.0 and above, most people have little free time left and their events overlap heavily.
+   */
+  CalendarGenerator overlapDensity(double overlapDensity) {
+    this.overlapDensity = overlapDensity;
+    return this;
+  }
+
+  /**
+   * Sets the chance that an event is an edge case instead of a random one: empty, touching the end
+   * of the previous event, starting at the same time as it, or touching the start or end of the
+   * day.
+   */
+  CalendarGenerator edgeCaseRate(double edgeCaseRate) {
+    this.edgeCaseRate = edgeCaseRate;
+    return this;
+  }
+
+  /**
+   * Returns the name of the {@code index}th person in the calendar.
+   */
+  static String person(int index) {
+    return "Person " + index;
+  }
+
+  /**
+   * Returns a new list of random events.
+   */
+  List<Event> events() {
+    int attendees = Math.min(attendeesPerEvent, peopleCount);
+    double eventsPerPerson = (double) eventCount * attendees / peopleCount;
+    double meanDuration = overlapDensity * MINUTES_IN_DAY / eventsPerPerson;
+    int maxDuration = (int) Math.max(1, Math.min(MINUTES_IN_DAY, meanDuration * 2));
+
+    List<Event> events = new ArrayList<>(eventCount);
+    TimeRange previous = TimeRange.fromStartDuration(random.nextInt(MINUTES_IN_DAY), 0);
+    for (int i = 0; i < eventCount; i++) {
+      int duration = 1 + random.nextInt(maxDuration);
+      TimeRange when = random.nextDouble() < edgeCaseRate
+          ? edgeCase(previous, duration)
+          : TimeRange.fromStartDuration(random.nextInt(MINUTES_IN_DAY - duration + 1), duration);
+      events.add(new Event("Event " + i, when, people(attendees)));
+      previous = when;
+    }
+    return events;
+  }
+
+  /**
+   * Returns a new request for {@code mandatoryCount} random people, plus {@code optionalCount}
+   * random optional people who are not already mandatory.
+   */
+  MeetingRequest request(int mandatoryCount, int optionalCount, long duration) {
+    mandatoryCount = Math.min(mandatoryCount, peopleCount);
+    optionalCount = Math.min(optionalCount, peopleCount - mandatoryCount);
+
+    Set<String> people = people(mandatoryCount + optionalCount);
+    List<String> mandatory = new ArrayList<>(people).subList(0, mandatoryCount);
+    MeetingRequest request = new MeetingRequest(mandatory, duration);
+    for (String person : people) {
+      request.addOptionalAttendee(person);
+    }
+    return request;
+  }
+
+  /**
+   * Returns a range of about {@code duration} minutes that is an edge case next to
+   * {@code previous}.
+   */
+  private TimeRange edgeCase(TimeRange previous, int duration) {
+    switch (random.nextInt(4)) {
+      case 0:
+        return TimeRange.fromStartDuration(random.nextInt(MINUTES_IN_DAY + 1), 0);
+      case 1:
+        return clamp(previous.end(), duration);
+      case 2:
+        return clamp(previous.start(), duration);
+      default:
+        return random.nextBoolean()
+            ? TimeRange.fromStartDuration(TimeRange.START_OF_DAY, duration)
+            : TimeRange.fromStartEnd(MINUTES_IN_DAY - duration, MINUTES_IN_DAY, false);
+    }
+  }
+
+  /**
+   * Returns a range that starts at {@code start} and ends no later than the end of the day.
+   */
+  private static TimeRange clamp(int start, int duration) {
+    return TimeRange.fromStartDuration(start, Math.min(duration, MINUTES_IN_DAY - start));
+  }
+
+  /**
+   * Returns {@code count} distinct random people.
+   */
+  private Set<String> people(int count) {
+    Set<String> people = new HashSet<>();
+    while (people.size() < count) {
+      people.add(person(random.nextInt(peopleCount)));
+    }
+    return people;
+  }
+}
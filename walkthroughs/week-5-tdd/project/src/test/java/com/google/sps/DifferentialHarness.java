@@ -0,0 +1,384 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Compares every way of answering a meeting request against the reference
+ * {@link FindMeetingQuery} on random calendars full of edge cases, and times them on calendars of
+ * increasing size. {@link HorizonScheduler} is compared separately against a minute-by-minute
+ * scan, since it answers over many days. Run {@link #main} for a timing table:
+ *
+ * <pre>
+ *   mvn test-compile
+ *   java -cp target/classes:target/test-classes com.google.sps.DifferentialHarness
+ * </pre>
+ */
+final class DifferentialHarness {
+  /**
+   * One way of answering a meeting request.
+   */
+  interface Scheduler {
+    Collection<TimeRange> query(List<Event> events, MeetingRequest request);
+  }
+
+  /**
+   * A request on which a candidate gave a different answer from the reference.
+   */
+  static final class Divergence {
+    final long seed;
+    final List<Event> events;
+    final MeetingRequest request;
+    final Collection<TimeRange> expected;
+    final Collection<TimeRange> actual;
+
+    Divergence(long seed, List<Event> events, MeetingRequest request,
+        Collection<TimeRange> expected, Collection<TimeRange> actual) {
+      this.seed = seed;
+      this.events = events;
+      this.request = request;
+      this.expected = expected;
+      this.actual = actual;
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder out = new StringBuilder();
+      out.append("seed ").append(seed).append(": attendees ").append(request.getAttendees())
+          .append(", optional ").append(request.getOptionalAttendees())
+          .append(", duration ").append(request.getDuration())
+          .append("\n  expected ").append(expected)
+          .append("\n  actual   ").append(actual);
+      for (Event event : events) {
+        out.append("\n  ").append(event.getTitle()).append(' ').append(event.getWhen())
+            .append(' ').append(event.getAttendees());
+      }
+      return out.toString();
+    }
+  }
+
+  private static final Scheduler REFERENCE =
+      (events, request) -> new FindMeetingQuery().query(events, request);
+
+  // Durations that sit on the boundaries of the day as well as ordinary ones.
+  private static final long[] DURATIONS =
+      {0, 1, 15, 30, 60, 120, TimeRange.WHOLE_DAY.duration(), TimeRange.WHOLE_DAY.duration() + 1};
+
+  private static final int MINUTES_PER_DAY = TimeRange.WHOLE_DAY.duration();
+
+  // One trial in this many asks for a group big enough that EventIndex combines it as bitmaps.
+  private static final int LARGE_GROUP_EVERY = 4;
+
+  private DifferentialHarness() {}
+
+  /**
+   * Returns every alternative to the reference, by name.
+   */
+  static Map<String, Scheduler> candidates() {
+    Map<String, Scheduler> candidates = new LinkedHashMap<>();
+    candidates.put("sweep-line", engine(new SweepLineEngine()));
+    candidates.put("bitmap", engine(new BitmapEngine()));
+    // A threshold of one splits the work all the way down to single events.
+    candidates.put("parallel", engine(new ParallelEngine(ForkJoinPool.commonPool(), 1)));
+    candidates.put("indexed",
+        (events, request) -> new FindMeetingQuery().query(new EventIndex(events), request));
+    candidates.put("cached",
+        (events, request) -> new MeetingQueryCache(new EventIndex(events), 4).query(request));
+    candidates.put("batch", (events, request) ->
+        new FindMeetingQuery().queryAll(events, Collections.singletonList(request)).get(0));
+    candidates.put("sharded", DifferentialHarness::queryShards);
+    candidates.put("mapped", DifferentialHarness::queryMappedStore);
+    candidates.put("imported", DifferentialHarness::queryImportedIndex);
+    return candidates;
+  }
+
+  /**
+   * Runs {@code trials} random requests against calendars full of edge cases and returns every
+   * request on which {@code candidate} disagreed with the reference. Most calendars are small and
+   * dense; the rest are wide populations with requests for large groups.
+   */
+  static List<Divergence> compare(Scheduler candidate, long seed, int trials) {
+    List<Divergence> divergences = new ArrayList<>();
+    for (int trial = 0; trial < trials; trial++) {
+      long trialSeed = seed + trial;
+      Random random = new Random(trialSeed);
+      CalendarGenerator generator = generator(trialSeed, random, trial % LARGE_GROUP_EVERY == 0);
+      List<Event> events = generator.events();
+      MeetingRequest request = request(generator, random, trial % LARGE_GROUP_EVERY == 0);
+
+      Collection<TimeRange> expected = REFERENCE.query(events, request);
+      Collection<TimeRange> actual = candidate.query(events, request);
+      if (!new ArrayList<>(expected).equals(new ArrayList<>(actual))) {
+        divergences.add(new Divergence(trialSeed, events, request, expected, actual));
+      }
+    }
+    return divergences;
+  }
+
+  /**
+   * Runs {@code trials} random requests through {@link HorizonScheduler} over calendars of up to
+   * four days and returns every request on which it disagreed with a minute-by-minute scan.
+   */
+  static List<Divergence> compareHorizon(long seed, int trials) {
+    List<Divergence> divergences = new ArrayList<>();
+    for (int trial = 0; trial < trials; trial++) {
+      long trialSeed = seed + trial;
+      Random random = new Random(trialSeed);
+      boolean largeGroup = trial % LARGE_GROUP_EVERY == 0;
+      CalendarGenerator generator = generator(trialSeed, random, largeGroup);
+      // With one day everything stays on day 0, so large groups can still be combined as bitmaps.
+      int days = 1 + random.nextInt(4);
+      List<Event> events = spreadOverDays(generator.events(), days, random);
+      MeetingRequest request = request(generator, random, largeGroup);
+
+      List<TimeRange> expected = scanHorizon(events, request, days);
+      List<TimeRange> actual = new HorizonScheduler(events)
+          .firstFreeSlots(request, 0, days, Integer.MAX_VALUE);
+      if (!expected.equals(actual)) {
+        divergences.add(new Divergence(trialSeed, events, request, expected, actual));
+      }
+    }
+    return divergences;
+  }
+
+  /**
+   * Returns a random calendar generator. Small calendars have few people and few events, so that
+   * people share events and the requests hit them. Large ones spread sparse events over enough
+   * people for a request of {@code 2 * EventIndex.BITMAP_GROUP_SIZE} attendees to leave gaps.
+   */
+  private static CalendarGenerator generator(long seed, Random random, boolean largeGroup) {
+    if (largeGroup) {
+      return new CalendarGenerator(seed)
+          .eventCount(random.nextInt(300))
+          .peopleCount(4 * EventIndex.BITMAP_GROUP_SIZE)
+          .attendeesPerEvent(1 + random.nextInt(3))
+          .overlapDensity(random.nextDouble() * 0.02)
+          .edgeCaseRate(0.5);
+    }
+
+    int peopleCount = 1 + random.nextInt(6);
+    return new CalendarGenerator(seed)
+        .eventCount(random.nextInt(12))
+        .peopleCount(peopleCount)
+        .attendeesPerEvent(1 + random.nextInt(peopleCount))
+        .overlapDensity(random.nextDouble() * 2)
+        .edgeCaseRate(0.5);
+  }
+
+  private static MeetingRequest request(
+      CalendarGenerator generator, Random random, boolean largeGroup) {
+    long duration = DURATIONS[random.nextInt(DURATIONS.length)];
+    if (largeGroup) {
+      return generator.request(2 * EventIndex.BITMAP_GROUP_SIZE, random.nextInt(3), duration);
+    }
+    // No mandatory attendees at all is one of the cases worth covering.
+    return generator.request(random.nextInt(3), random.nextInt(3), duration);
+  }
+
+  /**
+   * Returns {@code events} with each one moved to a random day of the first {@code days} days.
+   */
+  private static List<Event> spreadOverDays(List<Event> events, int days, Random random) {
+    List<Event> spread = new ArrayList<>(events.size());
+    for (Event event : events) {
+      int offset = random.nextInt(days) * MINUTES_PER_DAY;
+      spread.add(new Event(event.getTitle(), TimeRange.fromStartDuration(
+          event.getWhen().start() + offset, event.getWhen().duration()), event.getAttendees()));
+    }
+    return spread;
+  }
+
+  /**
+   * Returns what {@link HorizonScheduler#firstFreeSlots(MeetingRequest, int, int, int)} should,
+   * found by marking every busy minute of the first {@code days} days.
+   */
+  private static List<TimeRange> scanHorizon(List<Event> events, MeetingRequest request, int days) {
+    List<TimeRange> mandatory = scanHorizon(events, request.getAttendees(), request, days);
+    if (request.getOptionalAttendees().isEmpty()) {
+      return mandatory;
+    }
+
+    Set<String> everyone = new HashSet<>(request.getAttendees());
+    everyone.addAll(request.getOptionalAttendees());
+    List<TimeRange> all = scanHorizon(events, everyone, request, days);
+    return (!all.isEmpty() || request.getAttendees().isEmpty()) ? all : mandatory;
+  }
+
+  private static List<TimeRange> scanHorizon(
+      List<Event> events, Collection<String> attendees, MeetingRequest request, int days) {
+    boolean[] busy = new boolean[days * MINUTES_PER_DAY];
+    for (Event event : events) {
+      if (!Collections.disjoint(event.getAttendees(), attendees)) {
+        int end = Math.min(event.getWhen().end(), busy.length);
+        Arrays.fill(busy, Math.min(event.getWhen().start(), end), end, true);
+      }
+    }
+
+    List<TimeRange> free = new ArrayList<>();
+    int minute = 0;
+    while (minute < busy.length) {
+      if (busy[minute]) {
+        minute++;
+        continue;
+      }
+      int start = minute;
+      while (minute < busy.length && !busy[minute]) {
+        minute++;
+      }
+      if (minute - start >= request.getDuration()) {
+        free.add(TimeRange.fromStartEnd(start, minute, false));
+      }
+    }
+    return free;
+  }
+
+  /**
+   * Answers through a {@link ShardedCalendar} of three in-process shards.
+   */
+  private static Collection<TimeRange> queryShards(List<Event> events, MeetingRequest request) {
+    try (ShardedCalendar calendar = new ShardedCalendar(
+        Arrays.asList(new LocalShard(), new LocalShard(), new LocalShard()))) {
+      for (Event event : events) {
+        calendar.addEvent(event);
+      }
+      return new FindMeetingQuery().query(calendar, request);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Answers through a {@link MappedEventStore} written to a temporary file.
+   */
+  private static Collection<TimeRange> queryMappedStore(
+      List<Event> events, MeetingRequest request) {
+    try {
+      Path path = Files.createTempFile("differential", ".bin");
+      try {
+        MappedEventStore.write(events, path);
+        return new FindMeetingQuery().query(MappedEventStore.open(path), request);
+      } finally {
+        Files.delete(path);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Answers through an index that {@link EventImporter} built from the events as CSV.
+   */
+  private static Collection<TimeRange> queryImportedIndex(
+      List<Event> events, MeetingRequest request) {
+    StringBuilder csv = new StringBuilder();
+    for (Event event : events) {
+      csv.append(event.getTitle()).append(',').append(event.getWhen().start()).append(',')
+          .append(event.getWhen().end()).append(',')
+          .append(String.join(";", event.getAttendees())).append('\n');
+    }
+
+    try {
+      EventIndex index = new EventImporter(EventImporter.Format.CSV, 2)
+          .importFrom(new BufferedReader(new StringReader(csv.toString()))).index();
+      return new FindMeetingQuery().query(index, request);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Returns a table of the mean microseconds per query of the reference and every candidate, with
+   * one row per calendar size. The indexed, cached and batch candidates build their index for every
+   * query, so their times include building it.
+   */
+  static String timingTable(int[] eventCounts, int queries, long seed) {
+    Map<String, Scheduler> schedulers = new LinkedHashMap<>();
+    schedulers.put("reference", REFERENCE);
+    schedulers.putAll(candidates());
+
+    StringBuilder table = new StringBuilder(String.format("%10s", "events"));
+    for (String name : schedulers.keySet()) {
+      table.append(String.format(" %12s", name));
+    }
+    table.append('\n');
+
+    for (int eventCount : eventCounts) {
+      CalendarGenerator generator =
+          new CalendarGenerator(seed).eventCount(eventCount).edgeCaseRate(0.1);
+      List<Event> events = generator.events();
+      List<MeetingRequest> requests = new ArrayList<>();
+      for (int i = 0; i < queries; i++) {
+        requests.add(generator.request(3, 2, 30));
+      }
+
+      table.append(String.format("%10d", eventCount));
+      for (Scheduler scheduler : schedulers.values()) {
+        // Run once untimed so that class loading and the first compilation are not counted.
+        scheduler.query(events, requests.get(0));
+        long start = System.nanoTime();
+        for (MeetingRequest request : requests) {
+          scheduler.query(events, request);
+        }
+        double micros = (System.nanoTime() - start) / 1000.0 / queries;
+        table.append(String.format(" %12.1f", micros));
+      }
+      table.append('\n');
+    }
+    return table.toString();
+  }
+
+  public static void main(String[] args) {
+    for (Map.Entry<String, Scheduler> candidate : candidates().entrySet()) {
+      List<Divergence> divergences = compare(candidate.getValue(), 0, 10_000);
+      System.out.println(candidate.getKey() + ": " + divergences.size() + " divergences");
+      if (!divergences.isEmpty()) {
+        System.out.println(divergences.get(0));
+      }
+    }
+
+    List<Divergence> horizonDivergences = compareHorizon(0, 10_000);
+    System.out.println("horizon: " + horizonDivergences.size() + " divergences");
+    if (!horizonDivergences.isEmpty()) {
+      System.out.println(horizonDivergences.get(0));
+    }
+
+    System.out.println();
+    System.out.println("Mean microseconds per query:");
+    System.out.print(timingTable(new int[] {10, 100, 1000, 10_000}, 100, 0));
+  }
+
+  private static Scheduler engine(AvailabilityEngine engine) {
+    FindMeetingQuery query = new FindMeetingQuery(engine);
+    return (events, request) -> query.query(events, request);
+  }
+}
@@ -0,0 +1,62 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Checks that every alternative to the reference {@link FindMeetingQuery} gives the same answers
+ * on random calendars.
+ */
+@RunWith(Parameterized.class)
+public final class DifferentialTest {
+  private static final long SEED = 42;
+  private static final int TRIALS = 2000;
+
+  @Parameters(name = "{0}")
+  public static Collection<Object[]> candidates() {
+    List<Object[]> candidates = new ArrayList<>();
+    for (Map.Entry<String, DifferentialHarness.Scheduler> candidate :
+        DifferentialHarness.candidates().entrySet()) {
+      candidates.add(new Object[] {candidate.getKey(), candidate.getValue()});
+    }
+    return candidates;
+  }
+
+  @Parameter(0)
+  public String name;
+
+  @Parameter(1)
+  public DifferentialHarness.Scheduler candidate;
+
+  @Test
+  public void matchesReference() {
+    List<DifferentialHarness.Divergence> divergences =
+        DifferentialHarness.compare(candidate, SEED, TRIALS);
+
+    Assert.assertTrue(divergences.size() + " divergences, first " + divergences,
+        divergences.isEmpty());
+  }
+}
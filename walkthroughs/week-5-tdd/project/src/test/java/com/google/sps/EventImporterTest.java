@@ -0,0 +1,125 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class EventImporterTest {
+  private static final long SEED = 13;
+
+  @Test
+  public void csvMatchesEvents() throws IOException {
+    CalendarGenerator generator =
+        new CalendarGenerator(SEED).eventCount(20_000).peopleCount(50).edgeCaseRate(0.2);
+    List<Event> events = generator.events();
+
+    StringBuilder csv = new StringBuilder("title,start,end,attendees\n");
+    for (Event event : events) {
+      csv.append('"').append(event.getTitle()).append(", \"\"quoted\"\"\",")
+          .append(event.getWhen().start()).append(',').append(event.getWhen().end()).append(',')
+          .append(String.join(";", event.getAttendees())).append('\n');
+    }
+
+    EventImporter.Result result = new EventImporter(EventImporter.Format.CSV, 4)
+        .importFrom(new BufferedReader(new StringReader(csv.toString())));
+
+    Assert.assertEquals(events.size(), result.eventCount());
+    assertSameBusyTime(new EventIndex(events), result.index());
+  }
+
+  @Test
+  public void ndjsonMatchesEvents() throws IOException {
+    CalendarGenerator generator = new CalendarGenerator(SEED).eventCount(1000).peopleCount(20);
+    List<Event> events = generator.events();
+
+    StringBuilder ndjson = new StringBuilder();
+    for (Event event : events) {
+      ndjson.append("{\"title\":\"").append(event.getTitle()).append("\",\"when\":[")
+          .append(event.getWhen().start()).append(',').append(event.getWhen().end())
+          .append("],\"attendees\":[\"").append(String.join("\",\"", event.getAttendees()))
+          .append("\"]}\n\n");
+    }
+
+    EventImporter.Result result = new EventImporter(EventImporter.Format.NDJSON, 2)
+        .importFrom(new BufferedReader(new StringReader(ndjson.toString())));
+
+    Assert.assertEquals(events.size(), result.eventCount());
+    assertSameBusyTime(new EventIndex(events), result.index());
+  }
+
+  @Test
+  public void badLinesAreReported() {
+    String csv = "Event 1,0,30,Person A\nEvent 2,60,30,Person A\n";
+    try {
+      new EventImporter(EventImporter.Format.CSV, 1)
+          .importFrom(new BufferedReader(new StringReader(csv)));
+      Assert.fail();
+    } catch (IOException e) {
+      Assert.assertTrue(e.getMessage(), e.getMessage().startsWith("Line 2:"));
+    }
+  }
+
+  @Test
+  public void badLineStopsReading() {
+    // Line 2 is bad, and there are far more lines after it than could be waiting to be parsed.
+    int lineCount = 1_000_000;
+    AtomicInteger linesRead = new AtomicInteger();
+    BufferedReader reader = new BufferedReader(new StringReader("")) {
+      @Override
+      public String readLine() {
+        int line = linesRead.incrementAndGet();
+        if (line > lineCount) {
+          return null;
+        }
+        return (line == 2) ? "Event 2,60,30,Person A" : "Event " + line + ",0,30,Person A";
+      }
+    };
+
+    try {
+      new EventImporter(EventImporter.Format.CSV, 1).importFrom(reader);
+      Assert.fail();
+    } catch (IOException e) {
+      Assert.assertTrue(e.getMessage(), e.getMessage().startsWith("Line 2:"));
+    }
+    Assert.assertTrue(linesRead.get() < lineCount / 10);
+  }
+
+  @Test
+  public void onlyTheExactHeaderIsSkipped() throws IOException {
+    String csv = "title page,0,30,Person A\n";
+    EventImporter.Result result = new EventImporter(EventImporter.Format.CSV, 1)
+        .importFrom(new BufferedReader(new StringReader(csv)));
+
+    Assert.assertEquals(1, result.eventCount());
+  }
+
+  private static void assertSameBusyTime(EventIndex expected, EventIndex actual) {
+    for (int i = 0; i < 50; i++) {
+      String person = CalendarGenerator.person(i);
+      Assert.assertEquals(expected.getBusyTime(person), actual.getBusyTime(person));
+    }
+  }
+}
@@ -0,0 +1,159 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class EventIndexTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_0930AM = TimeRange.getTimeInMinutes(9, 30);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int DURATION_60_MINUTES = 60;
+
+  @Test
+  public void busyTimeIsMergedPerAttendee() {
+    // Events  : |--A--|
+    //               |--A,B--|
+    // Busy A  : |-----------|
+    // Busy B  :     |-------|
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0830AM, DURATION_60_MINUTES),
+            Arrays.asList(PERSON_A, PERSON_B)));
+
+    EventIndex index = new EventIndex(events);
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(TIME_0800AM, TIME_0930AM, false)),
+        index.getBusyTime(PERSON_A));
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartDuration(TIME_0830AM, DURATION_60_MINUTES)),
+        index.getBusyTime(PERSON_B));
+    Assert.assertEquals(Collections.emptyList(), index.getBusyTime(PERSON_C));
+  }
+
+  @Test
+  public void queryWithIndexMatchesQueryWithEvents() {
+    Collection<Event> events = Arrays.asList(Events.events);
+    EventIndex index = new EventIndex(events);
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    // Ask for a meeting with the attendees of every event, with one optional attendee on top.
+    for (Event event : events) {
+      MeetingRequest request = new MeetingRequest(event.getAttendees(), DURATION_30_MINUTES);
+      request.addOptionalAttendee("Emma");
+
+      Assert.assertEquals(query.query(events, request), query.query(index, request));
+    }
+  }
+
+  @Test
+  public void largeGroupsMatchQueryWithEvents() {
+    // Groups this big are combined as bitmaps, which must give the same answer as the intervals.
+    FindMeetingQuery query = new FindMeetingQuery();
+    for (long seed = 0; seed < 20; seed++) {
+      CalendarGenerator generator = new CalendarGenerator(seed).eventCount(400).peopleCount(1000)
+          .attendeesPerEvent(3).overlapDensity(0.002).edgeCaseRate(0.2);
+      List<Event> events = generator.events();
+      EventIndex index = new EventIndex(events);
+      MeetingRequest request =
+          generator.request(2 * EventIndex.BITMAP_GROUP_SIZE, 0, DURATION_30_MINUTES);
+
+      Assert.assertEquals(query.query(events, request), query.query(index, request));
+    }
+  }
+
+  @Test
+  public void queryWithIndexIgnoresPeopleNotAttending() {
+    EventIndex index = new EventIndex(Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false), Arrays.asList(PERSON_A))));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_B), DURATION_30_MINUTES);
+
+    Collection<TimeRange> actual = new FindMeetingQuery().query(index, request);
+    Collection<TimeRange> expected = Arrays.asList(TimeRange.WHOLE_DAY);
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void addEventUpdatesAttendees() {
+    EventIndex index = new EventIndex();
+    long version = index.version();
+
+    index.addEvent(new Event("Event 1", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+        Arrays.asList(PERSON_A, PERSON_B)));
+
+    Assert.assertNotEquals(version, index.version());
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false)),
+        index.getBusyTime(PERSON_A));
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false)),
+        index.getBusyTime(PERSON_B));
+  }
+
+  @Test
+  public void removeEventRestoresFreeTime() {
+    Event meeting = new Event("Event 1", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+        Arrays.asList(PERSON_A));
+    Event standup = new Event("Event 2",
+        TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES), Arrays.asList(PERSON_A));
+    EventIndex index = new EventIndex(Arrays.asList(meeting, standup));
+
+    Assert.assertTrue(index.removeEvent(meeting));
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES)),
+        index.getBusyTime(PERSON_A));
+  }
+
+  @Test
+  public void removeEventOnlyRemovesEqualEvents() {
+    Event meeting = new Event("Event 1", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+        Arrays.asList(PERSON_A));
+    EventIndex index = new EventIndex(Arrays.asList(meeting, meeting));
+    long version = index.version();
+
+    // Same time and attendees, but a different title, so it is a different event.
+    Assert.assertFalse(index.removeEvent(new Event("Event 2",
+        TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false), Arrays.asList(PERSON_A))));
+    Assert.assertEquals(version, index.version());
+
+    // The meeting was added twice, so removing it once must leave the other copy in place.
+    Assert.assertTrue(index.removeEvent(meeting));
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false)),
+        index.getBusyTime(PERSON_A));
+
+    Assert.assertTrue(index.removeEvent(meeting));
+    Assert.assertEquals(Collections.emptyList(), index.getBusyTime(PERSON_A));
+    Assert.assertFalse(index.removeEvent(meeting));
+  }
+}
@@ -19,15 +19,39 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.junit.runners.JUnit4;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
 
 /** */
-@RunWith(JUnit4.class)
+@RunWith(Parameterized.class)
 public final class FindMeetingQueryTest {
+  /**
+   * Every engine must produce the same answers, so the whole suite runs once per engine. A null
+   * engine means the reference implementation.
+   */
+  @Parameters(name = "{0}")
+  public static Collection<Object[]> engines() {
+    return Arrays.asList(new Object[][] {
+        {"reference", null},
+        {"sweep-line", new SweepLineEngine()},
+        {"bitmap", new BitmapEngine()},
+        // A threshold of one splits the work all the way down to single events.
+        {"parallel", new ParallelEngine(ForkJoinPool.commonPool(), 1)},
+    });
+  }
+
+  @Parameter(0)
+  public String engineName;
+
+  @Parameter(1)
+  public AvailabilityEngine engine;
+
   private static final Collection<Event> NO_EVENTS = Collections.emptySet();
   private static final Collection<String> NO_ATTENDEES = Collections.emptySet();
 
@@ -54,7 +78,7 @@ public final class FindMeetingQueryTest {
 
   @Before
   public void setUp() {
-    query = new FindMeetingQuery();
+    query = (engine == null) ? new FindMeetingQuery() : new FindMeetingQuery(engine);
   }
 
   @Test
@@ -200,6 +224,33 @@ public final class FindMeetingQueryTest {
     Assert.assertEquals(expected, actual);
   }
 
+  @Test
+  public void eventsWithTheSameStart() {
+    // Have two events start at the same time. The longer event must not be dropped just because
+    // it shares a start time with the shorter one.
+    //
+    // Events  :       |--A--|
+    //                 |----B----|
+    // Day     : |---------------------|
+    // Options : |--1--|         |--2--|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0830AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0830AM, DURATION_90_MINUTES),
+            Arrays.asList(PERSON_B)));
+
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0830AM, false),
+            TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
   @Test
   public void justEnoughRoom() {
     // Have one person, but make it so that there is just enough room at one point in the day to
@@ -416,5 +467,119 @@ public final class FindMeetingQueryTest {
 
     Assert.assertEquals(expected, actual);
   }
-}
 
+  @Test
+  public void bestSlotsRankedByOptionalAttendance() {
+    // Have one mandatory attendee and two optional attendees. The free time should be split
+    // wherever an optional attendee becomes busy, and ranked by how many of them can come.
+    //
+    // Events   :       |--A--|
+    // Optional :                  |--B--|
+    //                             |-----C-----|
+    // Day      : |------------------------------------|
+    // Options  : |--1--|     |-2-|       |-4-|   |--3--|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 3", TimeRange.fromStartDuration(TIME_0900AM, DURATION_60_MINUTES),
+            Arrays.asList(PERSON_C)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+    request.addOptionalAttendee(PERSON_C);
+
+    Collection<TimeRange> actual = query.bestSlots(events, request, 4);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            TimeRange.fromStartEnd(TIME_0830AM, TIME_0900AM, false),
+            TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true),
+            TimeRange.fromStartEnd(TIME_0930AM, TIME_1000AM, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void bestSlotsKeepsOnlyTopK() {
+    // The optional attendee is busy for the morning, so the afternoon ranks first even though it
+    // starts later.
+    //
+    // Optional : |----A----|
+    // Day      : |---------------------|
+    // Options  :           |-----1-----|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_1000AM, false),
+            Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_B), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_A);
+
+    Collection<TimeRange> actual = query.bestSlots(events, request, 1);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void bestSlotsWithoutOptionalsMatchesQuery() {
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_B)));
+
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES);
+
+    Collection<TimeRange> actual = query.bestSlots(events, request, 10);
+    Collection<TimeRange> expected = query.query(events, request);
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void bestSlotsWithHugeK() {
+    // Asking for far more slots than a day can hold should just return all of them.
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_1000AM, false),
+            Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_B), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_A);
+
+    Collection<TimeRange> actual = query.bestSlots(events, request, Integer.MAX_VALUE);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true),
+            TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_1000AM, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void queryAllMatchesQuery() {
+    // Send the same groups of attendees several times with different durations. Every answer
+    // should match a single query for that request.
+    Collection<Event> events = Arrays.asList(Events.events);
+    List<MeetingRequest> requests = new ArrayList<>();
+    for (int duration : new int[] {DURATION_30_MINUTES, DURATION_60_MINUTES, DURATION_2_HOUR}) {
+      requests.add(new MeetingRequest(Arrays.asList("Amelia", "Ava"), duration));
+      requests.add(new MeetingRequest(Arrays.asList("Ava", "Amelia"), duration));
+      requests.add(new MeetingRequest(Arrays.asList("Liam"), duration));
+
+      MeetingRequest withOptional = new MeetingRequest(Arrays.asList("Noah"), duration);
+      withOptional.addOptionalAttendee("Oliver");
+      requests.add(withOptional);
+    }
+
+    List<Collection<TimeRange>> actual = query.queryAll(events, requests);
+
+    Assert.assertEquals(requests.size(), actual.size());
+    for (int i = 0; i < requests.size(); i++) {
+      Assert.assertEquals(query.query(events, requests.get(i)), actual.get(i));
+    }
+  }
+}
@@ -0,0 +1,159 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class HorizonSchedulerTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int DAYS_IN_TWO_WEEKS = 14;
+  private static final int DURATION_1_HOUR = 60;
+  private static final int DURATION_3_DAYS = 3 * 24 * 60;
+
+  // Person A works 9:00 to 17:00 every day and is busy the rest of the time.
+  private static final Collection<Event> NIGHTS_BUSY = nightsBusy(PERSON_A, DAYS_IN_TWO_WEEKS);
+
+  @Test
+  public void firstSlotsAcrossDays() {
+    HorizonScheduler scheduler = new HorizonScheduler(NIGHTS_BUSY);
+
+    Collection<TimeRange> actual =
+        scheduler.firstFreeSlots(Arrays.asList(PERSON_A), DURATION_1_HOUR, 0, DAYS_IN_TWO_WEEKS, 3);
+    Collection<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartEnd(
+            HorizonScheduler.toMinutes(0, 9, 0), HorizonScheduler.toMinutes(0, 17, 0), false),
+        TimeRange.fromStartEnd(
+            HorizonScheduler.toMinutes(1, 9, 0), HorizonScheduler.toMinutes(1, 17, 0), false),
+        TimeRange.fromStartEnd(
+            HorizonScheduler.toMinutes(2, 9, 0), HorizonScheduler.toMinutes(2, 17, 0), false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void slotsAreClippedToTheWindow() {
+    // Start searching in the middle of the second day's working hours.
+    HorizonScheduler scheduler = new HorizonScheduler(NIGHTS_BUSY);
+    int from = HorizonScheduler.toMinutes(1, 12, 0);
+
+    Collection<TimeRange> actual =
+        scheduler.firstFreeSlots(Arrays.asList(PERSON_A), DURATION_1_HOUR, from, 1, 10);
+    Collection<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartEnd(from, HorizonScheduler.toMinutes(1, 17, 0), false),
+        TimeRange.fromStartEnd(
+            HorizonScheduler.toMinutes(2, 9, 0), HorizonScheduler.toMinutes(2, 12, 0), false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void slotsCanBeLongerThanADay() {
+    // Person B is away for the first two days and then free for the rest of the horizon.
+    HorizonScheduler scheduler = new HorizonScheduler(Arrays.asList(new Event("Trip",
+        TimeRange.fromStartEnd(0, HorizonScheduler.toMinutes(2, 0, 0), false),
+        Arrays.asList(PERSON_B))));
+
+    Collection<TimeRange> actual =
+        scheduler.firstFreeSlots(Arrays.asList(PERSON_B), DURATION_3_DAYS, 0, 7, 1);
+    Collection<TimeRange> expected = Arrays.asList(TimeRange.fromStartEnd(
+        HorizonScheduler.toMinutes(2, 0, 0), HorizonScheduler.toMinutes(7, 0, 0), false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void optionalAttendeeWhoCannotComeIsIgnored() {
+    // Person B is busy for the whole horizon, so only Person A's time is considered.
+    Collection<Event> events = Arrays.asList(new Event("Away",
+        TimeRange.fromStartEnd(0, HorizonScheduler.toMinutes(DAYS_IN_TWO_WEEKS, 0, 0), false),
+        Arrays.asList(PERSON_B)));
+    HorizonScheduler scheduler = new HorizonScheduler(events);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+    request.addOptionalAttendee(PERSON_B);
+
+    Collection<TimeRange> actual = scheduler.firstFreeSlots(request, 0, DAYS_IN_TWO_WEEKS, 1);
+    Collection<TimeRange> expected = Arrays.asList(TimeRange.fromStartEnd(
+        0, HorizonScheduler.toMinutes(DAYS_IN_TWO_WEEKS, 0, 0), false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void largeGroupsSeeBusyTimeAfterTheFirstDay() {
+    // Enough people that the index combines them as bitmaps, one of whom is busy all of day 1.
+    List<String> people = new ArrayList<>();
+    for (int i = 0; i < EventIndex.BITMAP_GROUP_SIZE; i++) {
+      people.add("Horizon person " + i);
+    }
+    HorizonScheduler scheduler = new HorizonScheduler(Arrays.asList(new Event("Day 1",
+        TimeRange.fromStartEnd(
+            HorizonScheduler.toMinutes(1, 0, 0), HorizonScheduler.toMinutes(2, 0, 0), false),
+        Arrays.asList(people.get(0)))));
+
+    Collection<TimeRange> actual = scheduler.firstFreeSlots(people, DURATION_1_HOUR, 0, 3, 10);
+    Collection<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartEnd(0, HorizonScheduler.toMinutes(1, 0, 0), false),
+        TimeRange.fromStartEnd(
+            HorizonScheduler.toMinutes(2, 0, 0), HorizonScheduler.toMinutes(3, 0, 0), false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void matchesMinuteByMinuteScan() {
+    List<DifferentialHarness.Divergence> divergences = DifferentialHarness.compareHorizon(42, 1000);
+
+    Assert.assertTrue(divergences.size() + " divergences, first " + divergences,
+        divergences.isEmpty());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void windowPastTheLastMinute() {
+    new HorizonScheduler(NIGHTS_BUSY).firstFreeSlots(
+        Arrays.asList(PERSON_A), DURATION_1_HOUR, Integer.MAX_VALUE - 10, 1, 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void dayPastTheLastMinute() {
+    HorizonScheduler.toMinutes(Integer.MAX_VALUE / 1000, 0, 0);
+  }
+
+  private static Collection<Event> nightsBusy(String person, int days) {
+    Event[] events = new Event[days + 1];
+    events[0] = new Event("Night 0",
+        TimeRange.fromStartEnd(0, HorizonScheduler.toMinutes(0, 9, 0), false),
+        Collections.singletonList(person));
+    for (int day = 0; day < days; day++) {
+      int start = HorizonScheduler.toMinutes(day, 17, 0);
+      int end = HorizonScheduler.toMinutes(day + 1, 9, 0);
+      events[day + 1] = new Event("Night " + (day + 1), TimeRange.fromStartEnd(start, end, false),
+          Collections.singletonList(person));
+    }
+    return Arrays.asList(events);
+  }
+}
@@ -0,0 +1,86 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class LongTimeRangeTest {
+  @Test
+  public void packRoundTrips() {
+    long range = LongTimeRange.pack(100, TimeRange.WHOLE_DAY.end());
+
+    Assert.assertEquals(100, LongTimeRange.start(range));
+    Assert.assertEquals(TimeRange.WHOLE_DAY.end(), LongTimeRange.end(range));
+    Assert.assertEquals(TimeRange.WHOLE_DAY.end() - 100, LongTimeRange.duration(range));
+    Assert.assertEquals(
+        TimeRange.fromStartEnd(100, TimeRange.END_OF_DAY, true), LongTimeRange.toTimeRange(range));
+  }
+
+  @Test
+  public void packedRangesSortByStartThenEnd() {
+    long[] ranges = {LongTimeRange.pack(200, 210), LongTimeRange.pack(100, 300),
+        LongTimeRange.pack(100, 150)};
+    Arrays.sort(ranges);
+
+    Assert.assertEquals(LongTimeRange.pack(100, 150), ranges[0]);
+    Assert.assertEquals(LongTimeRange.pack(100, 300), ranges[1]);
+    Assert.assertEquals(LongTimeRange.pack(200, 210), ranges[2]);
+  }
+
+  @Test
+  public void matchesTimeRange() {
+    // Compare every pair of small ranges, including empty ones, against TimeRange.
+    for (int aStart = 0; aStart < 6; aStart++) {
+      for (int aEnd = aStart; aEnd < 6; aEnd++) {
+        for (int bStart = 0; bStart < 6; bStart++) {
+          for (int bEnd = bStart; bEnd < 6; bEnd++) {
+            TimeRange a = TimeRange.fromStartEnd(aStart, aEnd, false);
+            TimeRange b = TimeRange.fromStartEnd(bStart, bEnd, false);
+            long packedA = LongTimeRange.of(a);
+            long packedB = LongTimeRange.of(b);
+            String message = a + " and " + b;
+
+            Assert.assertEquals(message, a.overlaps(b), LongTimeRange.overlaps(packedA, packedB));
+            Assert.assertEquals(message, a.contains(b), LongTimeRange.contains(packedA, packedB));
+            Assert.assertEquals(message, a.contains(bStart),
+                LongTimeRange.contains(packedA, bStart));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void listGrowsAndSorts() {
+    LongTimeRangeList list = new LongTimeRangeList(1);
+    list.add(300, 400);
+    list.add(100, 200);
+    list.add(LongTimeRange.pack(0, 50));
+    list.sort();
+
+    Assert.assertEquals(3, list.size());
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(0, 50, false), TimeRange.fromStartEnd(100, 200, false),
+            TimeRange.fromStartEnd(300, 400, false)),
+        list.toTimeRanges());
+  }
+}
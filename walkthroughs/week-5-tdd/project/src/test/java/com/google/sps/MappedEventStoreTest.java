@@ -0,0 +1,99 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class MappedEventStoreTest {
+  private static final long SEED = 11;
+
+  // Two names that sort one way as UTF-8 bytes and the other way as Java strings.
+  private static final String SMILE = "\uD83D\uDE00";
+  private static final String REPLACEMENT = "\uFFFD";
+
+  private Path path;
+
+  @Before
+  public void setUp() throws IOException {
+    path = Files.createTempFile("events", ".bin");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(path);
+  }
+
+  @Test
+  public void matchesReference() throws IOException {
+    CalendarGenerator generator =
+        new CalendarGenerator(SEED).eventCount(500).peopleCount(30).edgeCaseRate(0.2);
+    List<Event> events = generator.events();
+    MappedEventStore.write(events, path);
+    MappedEventStore store = MappedEventStore.open(path);
+
+    FindMeetingQuery query = new FindMeetingQuery();
+    for (int i = 0; i < 50; i++) {
+      MeetingRequest request = generator.request(i % 4, i % 3, 15 * (i % 6));
+      Assert.assertEquals(query.query(events, request), query.query(store, request));
+    }
+  }
+
+  @Test
+  public void busyTimeIsMerged() throws IOException {
+    List<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(60, 60), Arrays.asList(SMILE)),
+        new Event("Event 2", TimeRange.fromStartDuration(90, 60), Arrays.asList(REPLACEMENT)),
+        new Event("Event 3", TimeRange.fromStartDuration(100, 100), Arrays.asList(SMILE)));
+    MappedEventStore.write(events, path);
+    MappedEventStore store = MappedEventStore.open(path);
+
+    Assert.assertEquals(2, store.attendeeCount());
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(60, 200, false)),
+        store.getBusyTime(SMILE));
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartDuration(90, 60)),
+        store.getBusyTime(REPLACEMENT));
+    Assert.assertTrue(store.getBusyTime("Person A").isEmpty());
+  }
+
+  @Test(expected = IOException.class)
+  public void rejectsOtherFiles() throws IOException {
+    Files.write(path, "not an event store".getBytes());
+    MappedEventStore.open(path);
+  }
+
+  @Test(expected = IOException.class)
+  public void rejectsTruncatedFiles() throws IOException {
+    CalendarGenerator generator = new CalendarGenerator(SEED).eventCount(50).peopleCount(10);
+    MappedEventStore.write(generator.events(), path);
+
+    // Cut the file off part way through the intervals.
+    byte[] bytes = Files.readAllBytes(path);
+    Files.write(path, Arrays.copyOf(bytes, bytes.length / 2));
+    MappedEventStore.open(path);
+  }
+}
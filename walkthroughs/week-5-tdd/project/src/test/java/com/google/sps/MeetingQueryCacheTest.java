@@ -0,0 +1,97 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class MeetingQueryCacheTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int DURATION_60_MINUTES = 60;
+
+  @Test
+  public void durationChangesReuseBusyTime() {
+    EventIndex index = new EventIndex(Arrays.asList(Events.events));
+    MeetingQueryCache cache = new MeetingQueryCache(index, 10);
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    for (int duration = DURATION_30_MINUTES; duration <= 120; duration += 15) {
+      // The same people in a different order are the same group.
+      MeetingRequest request = new MeetingRequest(
+          (duration % 2 == 0) ? Arrays.asList("Ava", "Liam") : Arrays.asList("Liam", "Ava"),
+          duration);
+
+      Assert.assertEquals(query.query(index, request), cache.query(request));
+    }
+
+    Assert.assertEquals(1, cache.missCount());
+    Assert.assertEquals(6, cache.hitCount());
+  }
+
+  @Test
+  public void changesToTheIndexInvalidateEntries() {
+    EventIndex index = new EventIndex();
+    MeetingQueryCache cache = new MeetingQueryCache(index, 10);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+
+    Assert.assertEquals(Arrays.asList(TimeRange.WHOLE_DAY), cache.query(request));
+
+    index.addEvent(new Event("Event 1", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+        Arrays.asList(PERSON_A)));
+
+    Collection<TimeRange> actual = cache.query(request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+            TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+    Assert.assertEquals(2, cache.missCount());
+  }
+
+  @Test
+  public void leastRecentlyUsedGroupIsEvicted() {
+    MeetingQueryCache cache = new MeetingQueryCache(new EventIndex(), 1);
+
+    cache.query(new MeetingRequest(Arrays.asList(PERSON_A), DURATION_60_MINUTES));
+    cache.query(new MeetingRequest(Arrays.asList(PERSON_B), DURATION_60_MINUTES));
+    cache.query(new MeetingRequest(Arrays.asList(PERSON_A), DURATION_60_MINUTES));
+
+    Assert.assertEquals(1, cache.size());
+    Assert.assertEquals(3, cache.missCount());
+  }
+
+  @Test
+  public void requestedNamesAreNotInterned() {
+    MeetingQueryCache cache = new MeetingQueryCache(new EventIndex(), 10);
+    String stranger = "Never Seen " + System.nanoTime();
+
+    cache.query(new MeetingRequest(Arrays.asList(stranger), DURATION_60_MINUTES));
+
+    Assert.assertEquals(-1, AttendeeRegistry.global().find(stranger));
+  }
+}
@@ -0,0 +1,92 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class RecordingSchedulerMetricsTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+
+  private static final Collection<Event> EVENTS = Arrays.asList(
+      new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+          Arrays.asList(PERSON_A)),
+      // Person B is busy all day, so they can never come.
+      new Event("Event 2", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_B)));
+
+  @Test
+  public void referenceQueryRecordsEveryPhase() {
+    RecordingSchedulerMetrics metrics = new RecordingSchedulerMetrics();
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+    request.addOptionalAttendee(PERSON_B);
+
+    new FindMeetingQuery(metrics).query(EVENTS, request);
+
+    Assert.assertEquals(1, metrics.count(SchedulerMetrics.Phase.QUERY));
+    Assert.assertEquals(1, metrics.count(SchedulerMetrics.Phase.OPTIONALS));
+    // Once for the mandatory attendees and once for everyone together.
+    Assert.assertEquals(2, metrics.count(SchedulerMetrics.Phase.BUSY_TIME));
+    Assert.assertEquals(2, metrics.count(SchedulerMetrics.Phase.MERGE));
+    Assert.assertEquals(2, metrics.count(SchedulerMetrics.Phase.GAPS));
+    // Two events for one attendee, then two events for each of two attendees.
+    Assert.assertEquals(6, metrics.eventsScanned());
+    Assert.assertEquals(3, metrics.intervalsMerged());
+    Assert.assertEquals(1.0, metrics.optionalFallbackRate(), 0);
+  }
+
+  @Test
+  public void optionalsThatFitDoNotFallBack() {
+    RecordingSchedulerMetrics metrics = new RecordingSchedulerMetrics();
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+    request.addOptionalAttendee(PERSON_C);
+
+    new FindMeetingQuery(new SweepLineEngine(), metrics).query(EVENTS, request);
+    new FindMeetingQuery(new SweepLineEngine(), metrics)
+        .query(EVENTS, new MeetingRequest(Arrays.asList(PERSON_A), 30));
+
+    Assert.assertEquals(2, metrics.count(SchedulerMetrics.Phase.QUERY));
+    Assert.assertEquals(0, metrics.count(SchedulerMetrics.Phase.BUSY_TIME));
+    Assert.assertEquals(0.0, metrics.optionalFallbackRate(), 0);
+  }
+
+  @Test
+  public void quantilesAreUpperBounds() {
+    RecordingSchedulerMetrics metrics = new RecordingSchedulerMetrics();
+    for (long nanos = 1; nanos <= 100; nanos++) {
+      metrics.recordPhase(SchedulerMetrics.Phase.GAPS, nanos);
+    }
+
+    long median = metrics.quantileNanos(SchedulerMetrics.Phase.GAPS, 0.5);
+    Assert.assertTrue(median >= 50 && median <= 100);
+    Assert.assertEquals(128, metrics.quantileNanos(SchedulerMetrics.Phase.GAPS, 1.0));
+
+    Map<?, ?> gaps = (Map<?, ?>) ((Map<?, ?>) metrics.snapshot().get("phases")).get("gaps");
+    Assert.assertEquals(100L, gaps.get("count"));
+    Assert.assertEquals(0.1, (Double) gaps.get("maxMicros"), 1e-9);
+  }
+}
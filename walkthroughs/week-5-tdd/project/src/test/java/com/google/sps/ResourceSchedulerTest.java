@@ -0,0 +1,130 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class ResourceSchedulerTest {
+  private static final String PERSON_A = "Person A";
+
+  private static final Resource SMALL_ROOM =
+      new Resource("Small Room", "room", 4, Collections.emptyList());
+  private static final Resource BIG_ROOM =
+      new Resource("Big Room", "room", 10, Arrays.asList("whiteboard"));
+  private static final Resource PROJECTOR =
+      new Resource("Projector", "projector", 1, Collections.emptyList());
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1200PM = TimeRange.getTimeInMinutes(12, 0);
+  private static final int TIME_1400PM = TimeRange.getTimeInMinutes(14, 0);
+  private static final int TIME_1500PM = TimeRange.getTimeInMinutes(15, 0);
+
+  private static final int DURATION_1_HOUR = 60;
+
+  private ResourceScheduler scheduler;
+
+  @Before
+  public void setUp() {
+    EventIndex index = new EventIndex(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_1200PM, false),
+            Arrays.asList(SMALL_ROOM.getName())),
+        new Event("Event 3", TimeRange.fromStartEnd(TIME_1400PM, TIME_1500PM, false),
+            Arrays.asList(BIG_ROOM.getName())),
+        new Event("Event 4", TimeRange.fromStartEnd(TIME_1200PM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PROJECTOR.getName()))));
+    scheduler =
+        new ResourceScheduler(index, Arrays.asList(SMALL_ROOM, BIG_ROOM, PROJECTOR));
+  }
+
+  @Test
+  public void smallestFreeRoomIsChosen() {
+    // Events  :       |--A--|            |-Big-|
+    //           |----Small-----|
+    // Day     : |------------------------------------|
+    // Bookings: |-Big-|     |-Big-|
+    //                          |-------Small---------|
+    List<ResourceScheduler.Booking> actual = query(new ResourceRequirement("room", 2,
+        Collections.emptyList()));
+
+    Assert.assertEquals(3, actual.size());
+    assertBooking(actual.get(0), TimeRange.START_OF_DAY, TIME_0900AM, BIG_ROOM);
+    assertBooking(actual.get(1), TIME_1000AM, TIME_1200PM + DURATION_1_HOUR - 1, BIG_ROOM);
+    assertBooking(actual.get(2), TIME_1200PM, TimeRange.END_OF_DAY + 1, SMALL_ROOM);
+  }
+
+  @Test
+  public void capacityAndAttributesFilterRooms() {
+    List<ResourceScheduler.Booking> bigEnough = query(new ResourceRequirement("room", 6,
+        Collections.emptyList()));
+    List<ResourceScheduler.Booking> withWhiteboard = query(new ResourceRequirement("room", 0,
+        Arrays.asList("whiteboard")));
+
+    for (List<ResourceScheduler.Booking> actual : Arrays.asList(bigEnough, withWhiteboard)) {
+      Assert.assertEquals(3, actual.size());
+      assertBooking(actual.get(0), TimeRange.START_OF_DAY, TIME_0900AM, BIG_ROOM);
+      assertBooking(actual.get(1), TIME_1000AM, TIME_1400PM, BIG_ROOM);
+      assertBooking(actual.get(2), TIME_1500PM, TimeRange.END_OF_DAY + 1, BIG_ROOM);
+    }
+  }
+
+  @Test
+  public void everyRequirementMustBeMet() {
+    List<ResourceScheduler.Booking> actual = query(
+        new ResourceRequirement("room", 2, Collections.emptyList()),
+        new ResourceRequirement("projector", 0, Collections.emptyList()));
+
+    Assert.assertEquals(2, actual.size());
+    assertBooking(actual.get(0), TimeRange.START_OF_DAY, TIME_0900AM, BIG_ROOM, PROJECTOR);
+    assertBooking(actual.get(1), TIME_1000AM, TIME_1200PM, BIG_ROOM, PROJECTOR);
+  }
+
+  @Test
+  public void noSuitableResource() {
+    Assert.assertTrue(
+        query(new ResourceRequirement("room", 20, Collections.emptyList())).isEmpty());
+    Assert.assertTrue(
+        query(new ResourceRequirement("car", 0, Collections.emptyList())).isEmpty());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void duplicateResourceNames() {
+    new ResourceScheduler(new EventIndex(), Arrays.asList(SMALL_ROOM,
+        new Resource(SMALL_ROOM.getName(), "room", 8, Collections.emptyList())));
+  }
+
+  private List<ResourceScheduler.Booking> query(ResourceRequirement... requirements) {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+    return scheduler.query(request, Arrays.asList(requirements));
+  }
+
+  private static void assertBooking(
+      ResourceScheduler.Booking booking, int start, int end, Resource... resources) {
+    Assert.assertEquals(TimeRange.fromStartEnd(start, end, false), booking.getWhen());
+    Assert.assertEquals(Arrays.asList(resources), booking.getResources());
+  }
+}
@@ -0,0 +1,108 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class ShardedCalendarTest {
+  private static final long SEED = 7;
+  private static final int DURATION_30_MINUTES = 30;
+
+  @Test
+  public void localShardsMatchReference() throws Exception {
+    List<CalendarShard> shards = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      shards.add(new LocalShard());
+    }
+
+    try (ShardedCalendar calendar = new ShardedCalendar(shards)) {
+      assertMatchesReference(calendar);
+    }
+  }
+
+  @Test
+  public void remoteShardsMatchReference() throws Exception {
+    try (ShardServer first = new ShardServer(0); ShardServer second = new ShardServer(0);
+        ShardedCalendar calendar = new ShardedCalendar(Arrays.asList(
+            new RemoteShard(first.port()), new RemoteShard(second.port()), new LocalShard()))) {
+      assertMatchesReference(calendar);
+    }
+  }
+
+  @Test
+  public void workerProcessesMatchReference() throws Exception {
+    List<Process> workers = new ArrayList<>();
+    try {
+      List<CalendarShard> shards = new ArrayList<>();
+      for (int i = 0; i < 2; i++) {
+        Process worker = startWorker();
+        workers.add(worker);
+        BufferedReader out = new BufferedReader(
+            new InputStreamReader(worker.getInputStream(), StandardCharsets.UTF_8));
+        shards.add(new RemoteShard(Integer.parseInt(out.readLine().trim())));
+      }
+
+      try (ShardedCalendar calendar = new ShardedCalendar(shards)) {
+        assertMatchesReference(calendar);
+      }
+    } finally {
+      for (Process worker : workers) {
+        worker.destroy();
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void noShards() {
+    new ShardedCalendar(new ArrayList<>());
+  }
+
+  private static void assertMatchesReference(ShardedCalendar calendar) {
+    CalendarGenerator generator =
+        new CalendarGenerator(SEED).eventCount(300).peopleCount(20).edgeCaseRate(0.2);
+    List<Event> events = generator.events();
+    for (Event event : events) {
+      calendar.addEvent(event);
+    }
+
+    FindMeetingQuery query = new FindMeetingQuery();
+    for (int i = 0; i < 50; i++) {
+      MeetingRequest request = generator.request(i % 4, i % 3, DURATION_30_MINUTES * (i % 5));
+      Assert.assertEquals(query.query(events, request), query.query(calendar, request));
+    }
+  }
+
+  private static Process startWorker() throws Exception {
+    String java =
+        System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+    return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+        ShardServer.class.getName())
+        .redirectError(ProcessBuilder.Redirect.INHERIT)
+        .start();
+  }
+}
@@ -0,0 +1,130 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class WorkingHoursTest {
+  private static final String NEW_YORK = "Person A";
+  private static final String LONDON = "Person B";
+  private static final String TOKYO = "Person C";
+  private static final String ANYWHERE = "Person D";
+
+  private static final int NINE_TO_FIVE_START = TimeRange.getTimeInMinutes(9, 0);
+  private static final int NINE_TO_FIVE_END = TimeRange.getTimeInMinutes(17, 0);
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1400PM = TimeRange.getTimeInMinutes(14, 0);
+  private static final int TIME_1500PM = TimeRange.getTimeInMinutes(15, 0);
+  private static final int TIME_1700PM = TimeRange.getTimeInMinutes(17, 0);
+
+  private static final WorkingHoursConstraints CONSTRAINTS;
+
+  static {
+    Map<String, WorkingHours> hours = new HashMap<>();
+    hours.put(NEW_YORK, new WorkingHours(-5 * 60, NINE_TO_FIVE_START, NINE_TO_FIVE_END));
+    hours.put(LONDON, new WorkingHours(0, NINE_TO_FIVE_START, NINE_TO_FIVE_END));
+    hours.put(TOKYO, new WorkingHours(9 * 60, NINE_TO_FIVE_START, NINE_TO_FIVE_END));
+    CONSTRAINTS = new WorkingHoursConstraints(hours);
+  }
+
+  private static final List<Event> EVENTS = Arrays.asList(
+      new Event("Event 1", TimeRange.fromStartEnd(TIME_1400PM, TIME_1500PM, false),
+          Arrays.asList(LONDON)));
+
+  @Test
+  public void offHoursAreInUtc() {
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(TIME_1400PM, 22 * 60, false)),
+        free(new WorkingHours(-5 * 60, NINE_TO_FIVE_START, NINE_TO_FIVE_END)));
+
+    // 09:00 to 17:00 in Tokyo is 00:00 to 08:00 UTC.
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(0, 8 * 60, false)),
+        free(new WorkingHours(9 * 60, NINE_TO_FIVE_START, NINE_TO_FIVE_END)));
+
+    // A night shift from 22:00 to 06:00 that runs past midnight UTC.
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(0, 6 * 60, false),
+            TimeRange.fromStartEnd(22 * 60, TimeRange.END_OF_DAY, true)),
+        free(new WorkingHours(0, 22 * 60, 6 * 60)));
+  }
+
+  @Test
+  public void overlappingWorkingHours() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(NEW_YORK, LONDON, ANYWHERE), 60);
+
+    // New York and London share 14:00 to 17:00 UTC, and London is busy from 14:00 to 15:00.
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TIME_1500PM, TIME_1700PM, false));
+
+    Assert.assertEquals(expected,
+        new FindMeetingQuery().withWorkingHours(CONSTRAINTS).query(EVENTS, request));
+    Assert.assertEquals(expected, new FindMeetingQuery(new SweepLineEngine())
+        .withWorkingHours(CONSTRAINTS).query(EVENTS, request));
+    Assert.assertEquals(expected, new FindMeetingQuery().withWorkingHours(CONSTRAINTS)
+        .query(new EventIndex(EVENTS), request));
+  }
+
+  @Test
+  public void optionalAttendeeInAnotherTimezone() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(LONDON), 60);
+    request.addOptionalAttendee(TOKYO);
+
+    // Tokyo's working day is over before London's starts, so they are left out.
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0900AM, TIME_1400PM, false),
+            TimeRange.fromStartEnd(TIME_1500PM, TIME_1700PM, false)),
+        new FindMeetingQuery().withWorkingHours(CONSTRAINTS).query(EVENTS, request));
+  }
+
+  @Test
+  public void bestSlotsCountOptionalAttendeesOnlyInTheirWorkingHours() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(ANYWHERE), 60);
+    request.addOptionalAttendee(LONDON);
+
+    // London can only come during their working hours, less their 14:00 event.
+    Collection<TimeRange> actual =
+        new FindMeetingQuery().withWorkingHours(CONSTRAINTS).bestSlots(EVENTS, request, 10);
+    Collection<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartEnd(TIME_0900AM, TIME_1400PM, false),
+        TimeRange.fromStartEnd(TIME_1500PM, TIME_1700PM, false),
+        TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+        TimeRange.fromStartEnd(TIME_1400PM, TIME_1500PM, false),
+        TimeRange.fromStartEnd(TIME_1700PM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void emptyWindow() {
+    new WorkingHours(0, NINE_TO_FIVE_START, NINE_TO_FIVE_START);
+  }
+
+  private static List<TimeRange> free(WorkingHours hours) {
+    return hours.offHours().availableTime(1);
+  }
+}
@@ -0,0 +1,193 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.servlets;
+
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import java.io.BufferedReader;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class AsyncQueryServletTest {
+  private static final String REQUEST = "{\"attendees\":[\"Person A\"],\"duration\":30}";
+
+  private final QueryExecutor executor = new QueryExecutor(1, 1);
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @After
+  public void tearDown() {
+    release.countDown();
+    executor.shutdown();
+  }
+
+  @Test
+  public void writesTheAnswer() throws Exception {
+    AsyncQueryServlet servlet = new AsyncQueryServlet(
+        executor, meetingRequest -> Arrays.asList(TimeRange.WHOLE_DAY));
+
+    Exchange exchange = post(servlet);
+
+    Assert.assertTrue(exchange.awaitComplete());
+    Assert.assertEquals(0, exchange.status);
+    Assert.assertEquals("[[0,1440]]", exchange.body.toString());
+  }
+
+  @Test
+  public void failedQueryIsAnErrorRightAway() throws Exception {
+    AsyncQueryServlet servlet = new AsyncQueryServlet(executor, meetingRequest -> {
+      throw new IllegalStateException("broken");
+    });
+
+    Exchange exchange = post(servlet);
+
+    Assert.assertTrue(exchange.awaitComplete());
+    Assert.assertEquals(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, exchange.status);
+  }
+
+  @Test
+  public void fullExecutorIsBusy() throws Exception {
+    AsyncQueryServlet servlet = new AsyncQueryServlet(executor, this::awaitRelease);
+
+    // One query runs and one waits, so there is no room for a third.
+    post(servlet);
+    post(servlet);
+    Exchange exchange = post(servlet);
+
+    Assert.assertTrue(exchange.awaitComplete());
+    Assert.assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, exchange.status);
+    Assert.assertEquals("1", exchange.headers.get("Retry-After"));
+    Assert.assertEquals(1, executor.rejectedCount());
+  }
+
+  @Test
+  public void timeoutIsBusyAndTheAnswerIsDropped() throws Exception {
+    AsyncQueryServlet servlet = new AsyncQueryServlet(executor, this::awaitRelease);
+
+    Exchange exchange = post(servlet);
+    exchange.listener.onTimeout(null);
+    release.countDown();
+
+    Assert.assertTrue(exchange.awaitComplete());
+    Assert.assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, exchange.status);
+    Assert.assertEquals("", exchange.body.toString());
+  }
+
+  private Collection<TimeRange> awaitRelease(MeetingRequest meetingRequest) {
+    try {
+      release.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return Arrays.asList(TimeRange.WHOLE_DAY);
+  }
+
+  private static Exchange post(AsyncQueryServlet servlet) throws Exception {
+    Exchange exchange = new Exchange();
+    servlet.doPost(exchange.request, exchange.response);
+    return exchange;
+  }
+
+  /**
+   * One request and its response, faked with just enough behaviour for the servlet.
+   */
+  private static final class Exchange {
+    final StringWriter body = new StringWriter();
+    final Map<String, String> headers = new HashMap<>();
+    final CountDownLatch completed = new CountDownLatch(1);
+    volatile int status;
+    volatile AsyncListener listener;
+
+    final HttpServletResponse response = fake(HttpServletResponse.class, (method, args) -> {
+      switch (method) {
+        case "setStatus":
+          status = (Integer) args[0];
+          return null;
+        case "setHeader":
+          headers.put((String) args[0], (String) args[1]);
+          return null;
+        case "getWriter":
+          return new PrintWriter(body);
+        default:
+          return null;
+      }
+    });
+
+    final ServletContext servletContext = fake(ServletContext.class, (method, args) -> null);
+
+    final AsyncContext asyncContext = fake(AsyncContext.class, (method, args) -> {
+      switch (method) {
+        case "addListener":
+          listener = (AsyncListener) args[0];
+          return null;
+        case "getResponse":
+          return response;
+        case "getRequest":
+          return this.request;
+        case "complete":
+          completed.countDown();
+          return null;
+        default:
+          return null;
+      }
+    });
+
+    final HttpServletRequest request = fake(HttpServletRequest.class, (method, args) -> {
+      switch (method) {
+        case "getReader":
+          return new BufferedReader(new StringReader(REQUEST));
+        case "startAsync":
+          return asyncContext;
+        case "getServletContext":
+          return servletContext;
+        default:
+          return null;
+      }
+    });
+
+    boolean awaitComplete() throws InterruptedException {
+      return completed.await(5, TimeUnit.SECONDS);
+    }
+  }
+
+  private interface Handler {
+    Object handle(String method, Object[] args);
+  }
+
+  private static <T> T fake(Class<T> type, Handler handler) {
+    return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+        (proxy, method, args) -> handler.handle(method.getName(), args)));
+  }
+}
@@ -0,0 +1,87 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.servlets;
+
+import com.google.gson.stream.JsonWriter;
+import com.google.sps.Event;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class JsonTest {
+  @Test
+  public void readMeetingRequest() {
+    MeetingRequest request = Json.GSON.fromJson(
+        "{\"attendees\":[\"A\",\"B\"],\"optional_attendees\":[\"C\"],\"duration\":30,\"x\":{}}",
+        MeetingRequest.class);
+
+    Assert.assertEquals(new HashSet<>(Arrays.asList("A", "B")),
+        new HashSet<>(request.getAttendees()));
+    Assert.assertEquals(
+        Arrays.asList("C"), Arrays.asList(request.getOptionalAttendees().toArray()));
+    Assert.assertEquals(30, request.getDuration());
+  }
+
+  @Test
+  public void missingListsAreEmpty() {
+    MeetingRequest request = Json.GSON.fromJson(
+        "{\"attendees\":null,\"duration\":60}", MeetingRequest.class);
+
+    Assert.assertTrue(request.getAttendees().isEmpty());
+    Assert.assertTrue(request.getOptionalAttendees().isEmpty());
+  }
+
+  @Test
+  public void writeTimeRanges() throws Exception {
+    StringWriter out = new StringWriter();
+    JsonWriter writer = new JsonWriter(out);
+    Json.writeTimeRanges(writer, Arrays.asList(
+        TimeRange.fromStartDuration(0, 30), TimeRange.fromStartDuration(90, 60)));
+    writer.flush();
+
+    Assert.assertEquals("[[0,30],[90,150]]", out.toString());
+  }
+
+  @Test
+  public void eventRoundTrip() {
+    Event event = new Event("Event 1", TimeRange.fromStartDuration(480, 60),
+        Arrays.asList("Person B", "Person A"));
+
+    String json = Json.GSON.toJson(event);
+
+    Assert.assertTrue(json, json.startsWith("{\"title\":\"Event 1\",\"when\":[480,540],"));
+    Assert.assertEquals(event, Json.GSON.fromJson(json, Event.class));
+  }
+
+  @Test
+  public void writeNoTimeRanges() throws Exception {
+    StringWriter out = new StringWriter();
+    JsonWriter writer = new JsonWriter(out);
+    Json.writeTimeRanges(writer, Collections.emptyList());
+    writer.flush();
+
+    Assert.assertEquals("[]", out.toString());
+  }
+}
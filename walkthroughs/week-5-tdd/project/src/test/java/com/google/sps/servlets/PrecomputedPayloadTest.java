@@ -0,0 +1,93 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.servlets;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class PrecomputedPayloadTest {
+  // Repetitive enough that both compressed forms are smaller than the original.
+  private static final String BODY = String.join(",", Collections.nCopies(100, "\"x\""));
+
+  private final PrecomputedPayload payload =
+      new PrecomputedPayload(BODY.getBytes(StandardCharsets.UTF_8));
+
+  @Test
+  public void identityWithoutAcceptEncoding() {
+    PrecomputedPayload.Variant variant = payload.select(null);
+
+    Assert.assertNull(variant.contentEncoding);
+    Assert.assertEquals(BODY, new String(variant.body, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void compressedVariantsDecodeToTheBody() throws Exception {
+    PrecomputedPayload.Variant gzip = payload.select("gzip");
+    PrecomputedPayload.Variant deflate = payload.select("deflate");
+
+    Assert.assertEquals("gzip", gzip.contentEncoding);
+    Assert.assertEquals("deflate", deflate.contentEncoding);
+    Assert.assertEquals(BODY, read(new GZIPInputStream(new ByteArrayInputStream(gzip.body))));
+    Assert.assertEquals(
+        BODY, read(new InflaterInputStream(new ByteArrayInputStream(deflate.body))));
+    Assert.assertNotEquals(gzip.etag, deflate.etag);
+  }
+
+  @Test
+  public void refusedEncodingIsNotUsed() {
+    Assert.assertNull(payload.select("gzip;q=0, deflate;q=0").contentEncoding);
+    Assert.assertEquals("gzip", payload.select("br, gzip;q=0.5").contentEncoding);
+  }
+
+  @Test
+  public void malformedQValueIsNotAccepted() {
+    Assert.assertNull(payload.select("gzip;q=abc, deflate;q=").contentEncoding);
+    Assert.assertEquals("deflate", payload.select("gzip;q=abc, deflate").contentEncoding);
+  }
+
+  @Test
+  public void ifNoneMatch() {
+    String etag = payload.select(null).etag;
+
+    Assert.assertTrue(PrecomputedPayload.matches(etag, etag));
+    Assert.assertTrue(PrecomputedPayload.matches("\"other\", W/" + etag, etag));
+    Assert.assertTrue(PrecomputedPayload.matches("*", etag));
+    Assert.assertFalse(PrecomputedPayload.matches("\"other\"", etag));
+    Assert.assertFalse(PrecomputedPayload.matches(null, etag));
+  }
+
+  private static String read(InputStream in) throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (InputStream stream = in) {
+      byte[] buffer = new byte[4096];
+      for (int n = stream.read(buffer); n != -1; n = stream.read(buffer)) {
+        bytes.write(buffer, 0, n);
+      }
+    }
+    return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,77 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.servlets;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class QueryExecutorTest {
+  private final QueryExecutor executor = new QueryExecutor(1, 1);
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @After
+  public void tearDown() {
+    release.countDown();
+    executor.shutdown();
+  }
+
+  @Test
+  public void rejectsWhenSaturated() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    executor.submit(() -> {
+      started.countDown();
+      awaitRelease();
+    });
+    started.await();
+
+    // The only thread is busy, so this one waits in the queue.
+    executor.submit(this::awaitRelease);
+    Assert.assertEquals(1, executor.activeCount());
+    Assert.assertEquals(1, executor.queueDepth());
+
+    try {
+      executor.submit(this::awaitRelease);
+      Assert.fail();
+    } catch (RejectedExecutionException expected) {
+    }
+    Assert.assertEquals(1, executor.rejectedCount());
+    Assert.assertEquals(1, executor.largestQueueDepth());
+  }
+
+  @Test
+  public void runsTasks() throws Exception {
+    release.countDown();
+    executor.submit(() -> {}).get();
+
+    Assert.assertEquals(0, executor.rejectedCount());
+    Assert.assertEquals(0L, executor.snapshot().get("rejectedCount"));
+  }
+
+  private void awaitRelease() {
+    try {
+      release.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}